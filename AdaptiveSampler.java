@@ -0,0 +1,211 @@
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Repeats a timed measurement until its mean is known to a target
+ * precision or a time budget runs out, instead of a fixed number of times.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Takes samples until the 95% confidence interval of the mean is
+ *         within {@code ±precision} of the mean with at least
+ *         {@value #MIN_RETAINED} samples left after the warmup, the budget
+ *         is spent, or
+ *         {@value #MAX_SAMPLES} samples are taken; at least one sample is
+ *         always taken, so a cell whose single sample exceeds the budget
+ *         costs that one sample</li>
+ *     <li>Discards the warmup transient (interpreted and partly compiled
+ *         runs) with the MSER-5 rule: the samples are grouped in batches of
+ *         five, and the number of leading batches dropped is the one that
+ *         minimizes the standard error of the remaining mean, searched over
+ *         the first half</li>
+ *     <li>Summarizes the retained samples by mean, standard deviation,
+ *         median, 90th and 99th percentiles, minimum and maximum</li>
+ * </ul>
+ * Fast cells, such as sorting 100 elements, therefore get thousands of
+ * samples and slow ones only as many as the budget allows.
+ */
+public final class AdaptiveSampler {
+
+    /** Most samples taken for one cell. */
+    static final int MAX_SAMPLES = 1 << 20;
+
+    /** Batch size of the MSER warmup rule. */
+    private static final int MSER_BATCH = 5;
+
+    /**
+     * Samples that must remain after the warmup before the precision target
+     * may stop sampling; the warmup rule needs four batches to drop any.
+     */
+    private static final int MIN_RETAINED = 4 * MSER_BATCH;
+
+    /** Two-sided 95% Student t quantiles for 1 to 30 degrees of freedom. */
+    private static final double[] T_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private final double precision;
+    private final long budgetNanos;
+
+    /**
+     * @param precision   the target half-width of the 95% confidence
+     *                    interval, relative to the mean, for example
+     *                    {@code 0.02} for ±2%
+     * @param budgetNanos the wall-clock time to spend sampling one cell
+     * @throws IllegalArgumentException if either is not positive
+     */
+    public AdaptiveSampler(double precision, long budgetNanos) {
+        if (!(precision > 0) || budgetNanos <= 0) {
+            throw new IllegalArgumentException(
+                "Precision and budget must be positive: " + precision + ", " + budgetNanos
+            );
+        }
+        this.precision = precision;
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * @return the target relative half-width of the confidence interval
+     */
+    public double precision() {
+        return precision;
+    }
+
+    /**
+     * @return the time budget per cell in nanoseconds
+     */
+    public long budgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Samples one cell.
+     *
+     * @param sample takes sample {@code i} (from 0) and returns its timing
+     * @return the distribution of the retained samples
+     */
+    public Summary sample(IntFunction<SortAlgorithm.Timing> sample) {
+        long deadline = System.nanoTime() + budgetNanos;
+        long[] nanos = new long[64];
+        JvmStats jvm = JvmStats.ZERO;
+        int count = 0;
+        int nextCheck = MIN_RETAINED;
+
+        while (count < MAX_SAMPLES) {
+            SortAlgorithm.Timing timing = sample.apply(count);
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, 2 * count);
+            }
+            nanos[count++] = timing.nanos();
+            jvm = jvm.plus(timing.jvm());
+
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+            // Check about every 10% more samples, so checking stays O(n) overall
+            if (count >= nextCheck) {
+                Summary summary = summarize(nanos, count, jvm);
+                if (summary.samples() >= MIN_RETAINED && summary.relativeCi() <= precision) {
+                    break;
+                }
+                nextCheck = count + Math.max(MSER_BATCH, count / 10);
+            }
+        }
+        return summarize(nanos, count, jvm);
+    }
+
+    /**
+     * Drops the warmup of {@code nanos[0, count)} and summarizes the rest.
+     */
+    static Summary summarize(long[] nanos, int count, JvmStats jvm) {
+        int warmup = warmup(nanos, count);
+        long[] kept = Arrays.copyOfRange(nanos, warmup, count);
+        int k = kept.length;
+
+        double mean = 0;
+        for (long x : kept) {
+            mean += x;
+        }
+        mean /= k;
+        double squares = 0;
+        for (long x : kept) {
+            squares += (x - mean) * (x - mean);
+        }
+        double stddev = k > 1 ? Math.sqrt(squares / (k - 1)) : 0;
+        double halfWidth = k > 1 ? t95(k - 1) * stddev / Math.sqrt(k) : Double.POSITIVE_INFINITY;
+
+        Arrays.sort(kept);
+        return new Summary(k, warmup, mean, stddev, percentile(kept, 50), percentile(kept, 90),
+                percentile(kept, 99), kept[0], kept[k - 1], halfWidth / Math.max(1, mean), jvm);
+    }
+
+    /**
+     * MSER-5: the number of leading samples, a multiple of the batch size,
+     * whose removal minimizes the standard error of the remaining batch means.
+     */
+    private static int warmup(long[] nanos, int count) {
+        int batches = count / MSER_BATCH;
+        if (batches < 4) {
+            return 0;
+        }
+        double[] means = new double[batches];
+        for (int b = 0; b < batches; b++) {
+            long sum = 0;
+            for (int i = b * MSER_BATCH; i < (b + 1) * MSER_BATCH; i++) {
+                sum += nanos[i];
+            }
+            means[b] = (double) sum / MSER_BATCH;
+        }
+
+        // Suffix sums give each candidate's mean and variance in O(1)
+        double sum = 0;
+        double sumSquares = 0;
+        double best = Double.POSITIVE_INFINITY;
+        int bestDrop = 0;
+        for (int d = batches - 1; d >= 0; d--) {
+            sum += means[d];
+            sumSquares += means[d] * means[d];
+            int m = batches - d;
+            if (d <= batches / 2) {
+                double mser = (sumSquares - sum * sum / m) / ((double) m * m);
+                if (mser <= best) {
+                    best = mser;
+                    bestDrop = d;
+                }
+            }
+        }
+        return bestDrop * MSER_BATCH;
+    }
+
+    private static double t95(int degrees) {
+        return degrees <= T_95.length ? T_95[degrees - 1] : 1.96;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * The distribution of the samples of one cell after the warmup is
+     * dropped. Times are in nanoseconds.
+     *
+     * @param samples    the number of samples retained
+     * @param warmup     the number of leading samples dropped as warmup
+     * @param mean       the mean
+     * @param stddev     the sample standard deviation
+     * @param median     the median
+     * @param p90        the 90th percentile
+     * @param p99        the 99th percentile
+     * @param min        the fastest sample
+     * @param max        the slowest sample
+     * @param relativeCi the half-width of the 95% confidence interval of the
+     *                   mean, relative to the mean; infinite for one sample
+     * @param jvm        the JVM activity over all samples, warmup included
+     */
+    public record Summary(int samples, int warmup, double mean, double stddev, long median, long p90,
+                          long p99, long min, long max, double relativeCi, JvmStats jvm) {
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Results of analyzing one {@link SortAlgorithm} at one array size: the
+ * average case over random unique inputs plus the best (ascending) and worst
+ * (descending) cases.
+ */
+public final class AnalysisResult {
+
+    /**
+     * Operation counts, wall-clock time and JVM activity for one input case.
+     * The counts come from the instrumented run, and the time and JVM
+     * activity from the separate uninstrumented run of the same input.
+     */
+    public static final class Case {
+        private final SortStats stats;
+        private final long nanos;
+        private final JvmStats jvm;
+        private final AdaptiveSampler.Summary samples;
+
+        /**
+         * @param stats the (average) detailed operation counts
+         * @param nanos the (average) wall-clock time in nanoseconds
+         * @param jvm   the JVM activity, summed over the timed runs
+         */
+        public Case(SortStats stats, long nanos, JvmStats jvm) {
+            this(stats, nanos, jvm, null);
+        }
+
+        /**
+         * @param stats   the (average) detailed operation counts
+         * @param nanos   the mean wall-clock time in nanoseconds
+         * @param jvm     the JVM activity, summed over the timed runs
+         * @param samples the distribution of the times, or {@code null} if
+         *                the case was timed a fixed number of times
+         */
+        public Case(SortStats stats, long nanos, JvmStats jvm, AdaptiveSampler.Summary samples) {
+            this.stats = stats;
+            this.nanos = nanos;
+            this.jvm = jvm;
+            this.samples = samples;
+        }
+
+        /**
+         * @return the (average) number of basic operations
+         */
+        public long ops() {
+            return stats.ops();
+        }
+
+        /**
+         * @return the (average) detailed operation counts
+         */
+        public SortStats stats() {
+            return stats;
+        }
+
+        /**
+         * @return the (average) wall-clock time in nanoseconds
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * @return the JVM activity, summed over the timed runs
+         */
+        public JvmStats jvm() {
+            return jvm;
+        }
+
+        /**
+         * @return the distribution of the times if the case was sampled by
+         *         an {@link AdaptiveSampler}, otherwise {@code null}
+         */
+        public AdaptiveSampler.Summary samples() {
+            return samples;
+        }
+    }
+
+    private final SortAlgorithm algorithm;
+    private final int n;
+    private final Case average;
+    private final Case best;
+    private final Case worst;
+
+    /**
+     * @param algorithm the engine that was measured
+     * @param n         the array size
+     * @param average   the average case over random inputs
+     * @param best      the best case (sorted input)
+     * @param worst     the worst case (reverse-sorted input)
+     */
+    public AnalysisResult(SortAlgorithm algorithm, int n, Case average, Case best, Case worst) {
+        this.algorithm = algorithm;
+        this.n = n;
+        this.average = average;
+        this.best = best;
+        this.worst = worst;
+    }
+
+    /**
+     * @return the engine that was measured
+     */
+    public SortAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return the array size
+     */
+    public int n() {
+        return n;
+    }
+
+    /**
+     * @return the average case over random inputs
+     */
+    public Case average() {
+        return average;
+    }
+
+    /**
+     * @return the best case (sorted input)
+     */
+    public Case best() {
+        return best;
+    }
+
+    /**
+     * @return the worst case (reverse-sorted input)
+     */
+    public Case worst() {
+        return worst;
+    }
+}
@@ -0,0 +1,361 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Fits the growth of measured operation counts and times across array sizes
+ * to candidate complexity models, and checks the fits against a stored
+ * baseline.
+ * <p>
+ * For every engine and metric (average-case operations and average-case
+ * time) this class:
+ * <ul>
+ *     <li>Fits {@code y = a * n^b} by least squares on {@code log y} against
+ *         {@code log n}, giving the empirical exponent {@code b}</li>
+ *     <li>Fits {@code y = c * f(n)} for each {@link Model}, also in log
+ *         space so that every size weighs the same, and reports the
+ *         coefficient of determination R² of each; the model with the
+ *         highest R² is the best fit</li>
+ *     <li>Compares the best fit with the engine's
+ *         {@link SortAlgorithm#complexity()} label, unless even the best
+ *         fit explains less than {@value #MIN_R2} of the variance, in which
+ *         case the sizes measured do not tell the models apart</li>
+ * </ul>
+ * Fits can be written to a baseline file and later runs compared with it:
+ * an engine regresses when its exponent grows by more than the tolerance,
+ * or its constant for the baseline's model grows by more than the
+ * tolerance relative to the baseline constant.
+ */
+public final class ComplexityFit {
+
+    /** The two metrics fitted per engine. */
+    private static final String OPS = "ops";
+    private static final String TIME = "time";
+
+    /** Lowest R² of the best fit for a verdict on the complexity label. */
+    public static final double MIN_R2 = 0.9;
+
+    private ComplexityFit() {
+    }
+
+    /**
+     * Candidate growth functions.
+     */
+    public enum Model {
+        LINEAR("O(n)") {
+            @Override
+            double apply(double n) {
+                return n;
+            }
+        },
+        LINEARITHMIC("O(n log n)") {
+            @Override
+            double apply(double n) {
+                return n * Math.log(n) / Math.log(2);
+            }
+        },
+        LINEARITHMIC_SQUARED("O(n log^2 n)") {
+            @Override
+            double apply(double n) {
+                double log = Math.log(n) / Math.log(2);
+                return n * log * log;
+            }
+        },
+        QUADRATIC("O(n^2)") {
+            @Override
+            double apply(double n) {
+                return n * n;
+            }
+        };
+
+        private final String label;
+
+        Model(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @return the label in {@link SortAlgorithm#complexity()} notation
+         */
+        public String label() {
+            return label;
+        }
+
+        /**
+         * @param n the array size
+         * @return the growth function at {@code n}
+         */
+        abstract double apply(double n);
+
+        /**
+         * Returns the model named by a complexity label. For a range such
+         * as {@code "O(n) to O(n log n)"} the last bound is used, which is
+         * the one that holds for random inputs.
+         *
+         * @param complexity the label, for example {@code "O(n log n)"}
+         * @return the model, or {@code null} if the label names none
+         */
+        public static Model ofLabel(String complexity) {
+            int from = complexity.lastIndexOf("O(");
+            if (from < 0) {
+                return null;
+            }
+            String bound = complexity.substring(from);
+            for (Model model : values()) {
+                if (bound.startsWith(model.label)) {
+                    return model;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The fit of one metric to one model.
+     *
+     * @param model    the model
+     * @param constant the fitted {@code c} in {@code y = c * f(n)}
+     * @param r2       the coefficient of determination in log space
+     */
+    public record Fit(Model model, double constant, double r2) {
+    }
+
+    /**
+     * The fits of one engine's metric across all sizes.
+     *
+     * @param engine   the engine name
+     * @param metric   {@code "ops"} or {@code "time"} (nanoseconds)
+     * @param exponent the empirical exponent {@code b} of {@code y = a * n^b}
+     * @param fits     one fit per {@link Model}, in declaration order
+     */
+    public record Result(String engine, String metric, double exponent, List<Fit> fits) {
+
+        /**
+         * @return the fit with the highest R²
+         */
+        public Fit best() {
+            Fit best = fits.get(0);
+            for (Fit fit : fits) {
+                if (fit.r2() > best.r2()) {
+                    best = fit;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @param model a model
+         * @return the fit to {@code model}
+         */
+        public Fit fit(Model model) {
+            return fits.get(model.ordinal());
+        }
+    }
+
+    /**
+     * Regression tolerances, each applied both to the relative growth of a
+     * constant and to the absolute growth of an exponent.
+     *
+     * @param ops  the tolerance for operation counts, which only vary with
+     *             the inputs
+     * @param time the tolerance for times, which also vary with the machine,
+     *             its load and how far the JIT compiler got; infinite to
+     *             not check times
+     */
+    public record Tolerance(double ops, double time) {
+
+        /** 5% for operation counts; times are not checked. */
+        public static final Tolerance DEFAULT = new Tolerance(0.05, Double.POSITIVE_INFINITY);
+
+        double of(String metric) {
+            return metric.equals(OPS) ? ops : time;
+        }
+    }
+
+    /**
+     * Fits the average-case operation counts and times of every engine in
+     * {@code results}. Engines measured at fewer than two sizes are skipped.
+     *
+     * @param results the results of a size sweep, in any order
+     * @return two results per engine, operations first, in order of first
+     *         appearance
+     */
+    public static List<Result> fit(List<AnalysisResult> results) {
+        Map<String, List<AnalysisResult>> byEngine = new LinkedHashMap<>();
+        for (AnalysisResult result : results) {
+            byEngine.computeIfAbsent(result.algorithm().name(), name -> new ArrayList<>()).add(result);
+        }
+
+        List<Result> fits = new ArrayList<>();
+        for (Map.Entry<String, List<AnalysisResult>> entry : byEngine.entrySet()) {
+            List<AnalysisResult> sweep = entry.getValue();
+            if (sweep.size() < 2) {
+                continue;
+            }
+            double[] n = new double[sweep.size()];
+            double[] ops = new double[sweep.size()];
+            double[] nanos = new double[sweep.size()];
+            for (int i = 0; i < n.length; i++) {
+                n[i] = sweep.get(i).n();
+                ops[i] = Math.max(1, sweep.get(i).average().ops());
+                nanos[i] = Math.max(1, sweep.get(i).average().nanos());
+            }
+            fits.add(fit(entry.getKey(), OPS, n, ops));
+            fits.add(fit(entry.getKey(), TIME, n, nanos));
+        }
+        return fits;
+    }
+
+    /**
+     * Fits one metric; all values must be positive.
+     */
+    static Result fit(String engine, String metric, double[] n, double[] y) {
+        int count = n.length;
+        double[] logN = new double[count];
+        double[] logY = new double[count];
+        double meanLogN = 0;
+        double meanLogY = 0;
+        for (int i = 0; i < count; i++) {
+            logN[i] = Math.log(n[i]);
+            logY[i] = Math.log(y[i]);
+            meanLogN += logN[i] / count;
+            meanLogY += logY[i] / count;
+        }
+
+        double sxy = 0;
+        double sxx = 0;
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            sxy += (logN[i] - meanLogN) * (logY[i] - meanLogY);
+            sxx += (logN[i] - meanLogN) * (logN[i] - meanLogN);
+            total += (logY[i] - meanLogY) * (logY[i] - meanLogY);
+        }
+        double exponent = sxx == 0 ? 0 : sxy / sxx;
+
+        // log y = log c + log f(n): log c is the mean residual, and R² compares the rest to the variance
+        List<Fit> fits = new ArrayList<>();
+        for (Model model : Model.values()) {
+            double logC = 0;
+            for (int i = 0; i < count; i++) {
+                logC += (logY[i] - Math.log(model.apply(n[i]))) / count;
+            }
+            double residual = 0;
+            for (int i = 0; i < count; i++) {
+                double e = logY[i] - logC - Math.log(model.apply(n[i]));
+                residual += e * e;
+            }
+            double r2 = total == 0 ? 1 : 1 - residual / total;
+            fits.add(new Fit(model, Math.exp(logC), r2));
+        }
+        return new Result(engine, metric, exponent, fits);
+    }
+
+    /**
+     * Prints one line per engine and metric: the empirical exponent, the
+     * best-fitting model with its constant and R², and whether it matches
+     * the engine's complexity label; the verdict is "inconclusive" when the
+     * best R² is below {@value #MIN_R2}.
+     *
+     * @param results the fits, as returned by {@link #fit(List)}
+     */
+    public static void print(List<Result> results) {
+        System.out.println("Empirical complexity (average case):");
+        System.out.printf("  %-16s %-6s %-9s %-12s %-12s %-8s %s%n",
+                "engine", "metric", "exponent", "best fit", "constant", "R^2", "label");
+        for (Result result : results) {
+            Fit best = result.best();
+            String complexity = SortRegistry.contains(result.engine())
+                    ? SortRegistry.get(result.engine()).complexity() : "?";
+            String verdict;
+            if (best.r2() < MIN_R2) {
+                verdict = "inconclusive for ";
+            } else if (best.model() == Model.ofLabel(complexity)) {
+                verdict = "matches ";
+            } else {
+                verdict = "differs from ";
+            }
+            System.out.printf("  %-16s %-6s n^%-7.3f %-12s %-12.4g %-8.5f %s%s%n",
+                    result.engine(), result.metric(), result.exponent(), best.model().label(),
+                    best.constant(), best.r2(), verdict, complexity);
+        }
+    }
+
+    /**
+     * Writes the fits to {@code file} as a properties file, replacing it.
+     * For each engine and metric it stores the exponent, the best model and
+     * that model's constant.
+     *
+     * @param results the fits, as returned by {@link #fit(List)}
+     * @param file    the baseline file
+     * @throws IOException if the file cannot be written
+     */
+    public static void store(List<Result> results, Path file) throws IOException {
+        Properties baseline = new Properties();
+        for (Result result : results) {
+            String prefix = result.engine() + "." + result.metric() + ".";
+            Fit best = result.best();
+            baseline.setProperty(prefix + "exponent", Double.toString(result.exponent()));
+            baseline.setProperty(prefix + "model", best.model().name());
+            baseline.setProperty(prefix + "constant", Double.toString(best.constant()));
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer out = Files.newBufferedWriter(file)) {
+            baseline.store(out, "Complexity fit baseline, seed " + DataGenerator.getSeed());
+        }
+    }
+
+    /**
+     * Compares the fits with a baseline written by {@link #store}. Engines
+     * and metrics missing from the baseline are not checked.
+     *
+     * @param results   the fits of the current run
+     * @param file      the baseline file
+     * @param tolerance the allowed growth
+     * @return one message per regression; empty if there is none
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> compare(List<Result> results, Path file, Tolerance tolerance) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            baseline.load(in);
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (Result result : results) {
+            String prefix = result.engine() + "." + result.metric() + ".";
+            String model = baseline.getProperty(prefix + "model");
+            if (model == null) {
+                continue;
+            }
+            double allowed = tolerance.of(result.metric());
+            if (Double.isInfinite(allowed)) {
+                continue;
+            }
+
+            double oldExponent = Double.parseDouble(baseline.getProperty(prefix + "exponent"));
+            if (result.exponent() > oldExponent + allowed) {
+                regressions.add(String.format("%s %s: exponent %.3f > baseline %.3f + %.3f",
+                        result.engine(), result.metric(), result.exponent(), oldExponent, allowed));
+            }
+
+            Fit fit = result.fit(Model.valueOf(model));
+            double oldConstant = Double.parseDouble(baseline.getProperty(prefix + "constant"));
+            if (fit.constant() > oldConstant * (1 + allowed)) {
+                regressions.add(String.format("%s %s: %s constant %.4g > baseline %.4g + %.0f%%",
+                        result.engine(), result.metric(), fit.model().label(), fit.constant(),
+                        oldConstant, allowed * 100));
+            }
+        }
+        return regressions;
+    }
+}
@@ -1,30 +1,128 @@
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 /**
  * Utility class responsible for generating test data for the sorting experiments.
  * <p>
  * This class provides methods to generate:
  * <ul>
- *     <li>Unique random integer arrays (using Fisher–Yates shuffle)</li>
+ *     <li>Unique random integer arrays (using Floyd's sampling and a
+ *         Fisher–Yates shuffle)</li>
+ *     <li>Unique integer arrays that are already sorted, in O(n)</li>
+ *     <li>Binary files of unique random integers too large for the heap</li>
  *     <li>Best-case arrays (sorted ascending)</li>
  *     <li>Worst-case arrays (sorted descending)</li>
+ *     <li>The other {@link Workload} shapes: nearly sorted, few unique
+ *         values, organ-pipe, sawtooth, Zipf-distributed and Merge Sort
+ *         adversarial arrays, each in O(n) time without any
+ *         {@code maxValue}-sized table</li>
  * </ul>
  * All methods are static so the class can be used without instantiation.
+ * <p>
+ * Randomness comes from {@link SplittableRandom} streams derived from a
+ * single experiment seed, which can be fixed with {@link #setSeed(long)}:
+ * <ul>
+ *     <li>Every generator has an overload taking an explicit stream, and
+ *         {@link #stream(long...)} derives a stream for a task from the seed
+ *         and a task key, so each input can be regenerated on its own, on
+ *         any thread and on any machine.</li>
+ *     <li>The overloads without a stream draw from a stream owned by the
+ *         calling thread, so concurrent callers never contend on shared
+ *         state. Those are only reproducible for single-threaded callers.</li>
+ *     <li>Large random arrays and files are generated in parallel, with a
+ *         result that depends only on the stream, not on the number of
+ *         threads.</li>
+ * </ul>
  */
 public class DataGenerator {
 
-    /** Shared random number generator used by all methods. */
-    private static final Random RANDOM = new Random();
+    /**
+     * Smallest {@code n} for which {@link #generateUniqueRandomArray(SplittableRandom, int, int)}
+     * generates in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    /** Golden-ratio increment used to spread task keys, as in SplittableRandom. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** Seed all streams derive from; random unless set with {@link #setSeed(long)}. */
+    private static volatile long seed = new SplittableRandom().nextLong();
+
+    /** Per-thread streams for the overloads without an explicit stream. */
+    private static final ThreadLocal<ThreadStream> THREAD_STREAMS = new ThreadLocal<>();
+
+    /** Number of per-thread streams created, used as their task key. */
+    private static final AtomicLong THREAD_STREAM_COUNT = new AtomicLong();
+
+    /**
+     * Sets the experiment seed. Streams obtained afterwards from
+     * {@link #stream(long...)}, and per-thread streams first used afterwards,
+     * derive from it.
+     *
+     * @param newSeed the seed
+     */
+    public static void setSeed(long newSeed) {
+        seed = newSeed;
+        THREAD_STREAM_COUNT.set(0);
+    }
+
+    /**
+     * @return the current experiment seed
+     */
+    public static long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns a new stream for the task identified by {@code key}. The same
+     * seed and key always give the same stream, independently of the
+     * thread, of the order tasks are run in and of the machine.
+     *
+     * @param key the task key, for example the input size and run index
+     * @return a new stream for that task
+     */
+    public static SplittableRandom stream(long... key) {
+        long state = seed;
+        for (long k : key) {
+            state = RandomPermutation.mix(state + GOLDEN_GAMMA + k);
+        }
+        return new SplittableRandom(state);
+    }
+
+    /**
+     * Returns the calling thread's stream, creating it on first use or after
+     * the seed changed.
+     */
+    private static SplittableRandom threadStream() {
+        ThreadStream current = THREAD_STREAMS.get();
+        long s = seed;
+        if (current == null || current.seed != s) {
+            // Single negative keys, unlike the (n, maxValue, run) task keys of SortHarness
+            current = new ThreadStream(s, stream(-1 - THREAD_STREAM_COUNT.getAndIncrement()));
+            THREAD_STREAMS.set(current);
+        }
+        return current.random;
+    }
 
     /**
      * Generates an array of {@code n} <b>unique</b> random integers
-     * in the range {@code [0, maxValue)} using a Fisher–Yates shuffle.
+     * in the range {@code [0, maxValue)} using Floyd's sampling algorithm.
      * <p>
-     * The method first creates a pool of values {@code 0, 1, ..., maxValue-1},
-     * randomly shuffles them in-place, and then copies the first {@code n}
-     * values into the result array. This guarantees that all values in the
-     * result are unique.
+     * For each {@code j} from {@code maxValue - n} to {@code maxValue - 1},
+     * a random value {@code t} in {@code [0, j]} is drawn; {@code t} is taken
+     * if it has not been chosen yet, otherwise {@code j} itself is taken.
+     * This picks every {@code n}-subset with equal probability, and a
+     * Fisher–Yates shuffle of the {@code n} chosen values then makes every
+     * ordering equally likely. Memory and time are proportional to {@code n}
+     * only, so {@code maxValue} may be as large as {@link Integer#MAX_VALUE}.
      *
      * @param n        the number of integers to generate
      * @param maxValue the upper bound (exclusive) for generated values;
@@ -34,33 +132,147 @@ public class DataGenerator {
      * @throws IllegalArgumentException if {@code n > maxValue}
      */
     public static int[] generateUniqueRandomArray(int n, int maxValue) {
-        if (n > maxValue) {
-            throw new IllegalArgumentException(
-                "Cannot generate " + n + " unique values in range 0.." + (maxValue - 1)
-            );
+        return generateUniqueRandomArray(threadStream(), n, maxValue);
+    }
+
+    /**
+     * Generates an array of {@code n} <b>unique</b> random integers in the
+     * range {@code [0, maxValue)}, drawing from {@code random}.
+     * <p>
+     * Below {@value #PARALLEL_THRESHOLD} elements this uses Floyd's sampling
+     * as described in {@link #generateUniqueRandomArray(int, int)}. From
+     * there on, element {@code i} is the image of {@code i} under a random
+     * bijection of {@code [0, maxValue)} whose keys are drawn from
+     * {@code random}, and elements are computed in parallel. Since each
+     * element depends only on its index, the result is the same whatever
+     * the number of threads.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values;
+     *                 must satisfy {@code n <= maxValue}
+     * @return an array of length {@code n} containing unique random integers
+     *         in the range {@code [0, maxValue)}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    public static int[] generateUniqueRandomArray(SplittableRandom random, int n, int maxValue) {
+        checkRange(n, maxValue);
+
+        if (n >= PARALLEL_THRESHOLD) {
+            RandomPermutation permutation = new RandomPermutation(random, maxValue);
+            int[] result = new int[n];
+            Arrays.parallelSetAll(result, permutation::apply);
+            return result;
         }
 
-        // pool = [0, 1, 2, ..., maxValue-1]
-        int[] pool = new int[maxValue];
-        for (int i = 0; i < maxValue; i++) {
-            pool[i] = i;
+        int[] result = new int[n];
+        IntHashSet chosen = new IntHashSet(n);
+
+        // Floyd's algorithm: exactly n draws, no retries
+        int k = 0;
+        for (int j = maxValue - n; j < maxValue; j++) {
+            int t = random.nextInt(j + 1); // random value [0, j]
+            if (!chosen.add(t)) {
+                // t was taken earlier; j is new because earlier draws were < j
+                chosen.add(j);
+                t = j;
+            }
+            result[k++] = t;
         }
 
-        // Fisher–Yates shuffle on pool
-        for (int i = maxValue - 1; i > 0; i--) {
-            int j = RANDOM.nextInt(i + 1); // random index [0, i]
-            int temp = pool[i];
-            pool[i] = pool[j];
-            pool[j] = temp;
+        // Fisher–Yates shuffle so the order is uniformly random as well
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1); // random index [0, i]
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
         }
 
-        // Take first n-shuffled values
+        return result;
+    }
+
+    /**
+     * Generates {@code n} <b>unique</b> random integers in the range
+     * {@code [0, maxValue)} that are already in ascending order.
+     * <p>
+     * Sorted uniform variates {@code u_0 < ... < u_(n-1)} in {@code [0, 1)} are
+     * produced from the largest down in a single pass
+     * ({@code u_(i) = u_(i+1) * U^(1/(i+1))}), scaled onto the
+     * {@code maxValue - n} spare slots of the range, and the {@code i}-th one
+     * is shifted up by {@code i}. The shift makes equal scaled values
+     * distinct, so the result is strictly increasing without any sorting or
+     * duplicate checks. Runs in O(n) time and uses no memory beyond the result.
+     * The subsets produced are close to, but not exactly, uniformly
+     * distributed; use {@link #generateUniqueRandomArray(int, int)} where an
+     * exact uniform sample is required.
+     *
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values;
+     *                 must satisfy {@code n <= maxValue}
+     * @return a strictly increasing array of length {@code n} with values in
+     *         the range {@code [0, maxValue)}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    public static int[] generateSortedUniqueArray(int n, int maxValue) {
+        return generateSortedUniqueArray(threadStream(), n, maxValue);
+    }
+
+    /**
+     * Generates {@code n} <b>unique</b> random integers in the range
+     * {@code [0, maxValue)} in ascending order, drawing from {@code random}.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values;
+     *                 must satisfy {@code n <= maxValue}
+     * @return a strictly increasing array of length {@code n} with values in
+     *         the range {@code [0, maxValue)}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     * @see #generateSortedUniqueArray(int, int)
+     */
+    public static int[] generateSortedUniqueArray(SplittableRandom random, int n, int maxValue) {
+        checkRange(n, maxValue);
+
         int[] result = new int[n];
-        for (int i = 0; i < n; i++) {
-            result[i] = pool[i];
+        fillSortedUnique(random, result, maxValue, false);
+        return result;
+    }
+
+    /**
+     * Fills {@code target} with unique values in {@code [0, maxValue)} in
+     * ascending order, or in descending order if {@code descending} is set.
+     *
+     * @param random     the stream to draw from
+     * @param target     the array to fill; its length is the sample size
+     * @param maxValue   the upper bound (exclusive) for generated values
+     * @param descending whether to write the values in descending order
+     */
+    private static void fillSortedUnique(SplittableRandom random, int[] target, int maxValue, boolean descending) {
+        int n = target.length;
+        double slots = (double) maxValue - n + 1; // number of possible offsets
+
+        double current = 1.0;
+        for (int i = n - 1; i >= 0; i--) {
+            current *= Math.pow(random.nextDouble(), 1.0 / (i + 1));
+            long offset = Math.min((long) (current * slots), maxValue - n);
+            int value = (int) (i + offset);
+            target[descending ? n - 1 - i : i] = value;
         }
+    }
 
-        return result;
+    /**
+     * Validates the arguments shared by all unique-value generators.
+     *
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    private static void checkRange(int n, int maxValue) {
+        if (n > maxValue) {
+            throw new IllegalArgumentException(
+                "Cannot generate " + n + " unique values in range 0.." + (maxValue - 1)
+            );
+        }
     }
 
     /**
@@ -97,5 +309,460 @@ public class DataGenerator {
         }
         return copy;
     }
+
+    /**
+     * Produces a best-case input of {@code n} unique values in
+     * {@code [0, maxValue)} directly in ascending order, without generating
+     * and sorting a random base array first.
+     *
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return a strictly increasing array of length {@code n}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     * @see #generateSortedUniqueArray(int, int)
+     */
+    public static int[] createBestCase(int n, int maxValue) {
+        return createBestCase(threadStream(), n, maxValue);
+    }
+
+    /**
+     * Produces a best-case input of {@code n} unique values in
+     * {@code [0, maxValue)} in ascending order, drawing from {@code random}.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return a strictly increasing array of length {@code n}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    public static int[] createBestCase(SplittableRandom random, int n, int maxValue) {
+        return generateSortedUniqueArray(random, n, maxValue);
+    }
+
+    /**
+     * Produces a worst-case input of {@code n} unique values in
+     * {@code [0, maxValue)} directly in descending order, without generating
+     * and sorting a random base array first.
+     *
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return a strictly decreasing array of length {@code n}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    public static int[] createWorstCase(int n, int maxValue) {
+        return createWorstCase(threadStream(), n, maxValue);
+    }
+
+    /**
+     * Produces a worst-case input of {@code n} unique values in
+     * {@code [0, maxValue)} in descending order, drawing from {@code random}.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return a strictly decreasing array of length {@code n}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    public static int[] createWorstCase(SplittableRandom random, int n, int maxValue) {
+        checkRange(n, maxValue);
+
+        int[] result = new int[n];
+        fillSortedUnique(random, result, maxValue, true);
+        return result;
+    }
+
+    /**
+     * Produces a nearly sorted array: {@code n} unique values in ascending
+     * order, after which {@code swaps} random pairs of positions are
+     * exchanged.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @param swaps    the number of random swaps
+     * @return the generated array
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    public static int[] generateNearlySorted(SplittableRandom random, int n, int maxValue, int swaps) {
+        int[] result = generateSortedUniqueArray(random, n, maxValue);
+        if (n < 2) {
+            return result;
+        }
+        for (int s = 0; s < swaps; s++) {
+            int i = random.nextInt(n);
+            int j = random.nextInt(n);
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+
+    /**
+     * Produces an array with heavy duplication: {@code distinct} random
+     * values in {@code [0, maxValue)} are chosen once, and every element is
+     * one of them, picked uniformly.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @param distinct the number of distinct values; capped at {@code maxValue}
+     * @return the generated array
+     */
+    public static int[] generateFewUnique(SplittableRandom random, int n, int maxValue, int distinct) {
+        int[] levels = generateUniqueRandomArray(random, Math.min(distinct, maxValue), maxValue);
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = levels[random.nextInt(levels.length)];
+        }
+        return result;
+    }
+
+    /**
+     * Produces an organ-pipe array: values rise evenly from {@code 0} over
+     * the first half and fall back over the second half, so every value but
+     * the peak appears twice.
+     *
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return the generated array
+     */
+    public static int[] generateOrganPipe(int n, int maxValue) {
+        int[] result = new int[n];
+        long half = (n + 1) / 2; // distance from the nearer end is below this
+        for (int i = 0; i < n; i++) {
+            long distance = Math.min(i, n - 1 - i);
+            result[i] = (int) (distance * maxValue / half);
+        }
+        return result;
+    }
+
+    /**
+     * Produces a sawtooth array: ascending ramps of {@code period} values
+     * spread over {@code [0, maxValue)}, repeated until {@code n} values are
+     * written.
+     *
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @param period   the length of each ramp; at least 1
+     * @return the generated array
+     */
+    public static int[] generateSawtooth(int n, int maxValue, int period) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = (int) ((long) (i % period) * maxValue / period);
+        }
+        return result;
+    }
+
+    /**
+     * Produces Zipf-distributed values: value {@code v} in
+     * {@code [0, maxValue)} is drawn with probability proportional to
+     * {@code 1 / (v + 1)^exponent}, so a few small values dominate. Each
+     * value is sampled in expected O(1) time by rejection-inversion, without
+     * a table of the {@code maxValue} probabilities.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @param exponent the skew; larger values concentrate on fewer values
+     * @return the generated array
+     */
+    public static int[] generateZipf(SplittableRandom random, int n, int maxValue, double exponent) {
+        ZipfSampler sampler = new ZipfSampler(maxValue, exponent);
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = sampler.sample(random) - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Produces a worst case for the top-down Merge Sort of
+     * {@link MergeSortAnalyzer}: {@code n} unique values arranged so that
+     * every merge interleaves its two runs element by element and therefore
+     * needs the maximum number of comparisons.
+     * <p>
+     * The sorted values are split the way the sort splits positions, but in
+     * reverse: the left half of a range receives the values of even rank
+     * and the right half those of odd rank, recursively. Each range is
+     * visited once, so this takes O(n) time.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return the generated array
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     */
+    public static int[] generateMergeSortAdversarial(SplittableRandom random, int n, int maxValue) {
+        int[] sorted = generateSortedUniqueArray(random, n, maxValue);
+        int[] result = new int[n];
+        if (n > 0) {
+            unmerge(sorted, result, 0, n - 1, 0, 1);
+        }
+        return result;
+    }
+
+    /**
+     * Places the values of rank {@code start}, {@code start + stride}, ...
+     * of {@code sorted} into {@code result[l..r]} so that sorting the range
+     * with Merge Sort interleaves them at every merge.
+     */
+    private static void unmerge(int[] sorted, int[] result, int l, int r, int start, int stride) {
+        if (l == r) {
+            result[l] = sorted[start];
+            return;
+        }
+        int m = l + (r - l) / 2; // the split used by MergeSortAnalyzer
+        unmerge(sorted, result, l, m, start, 2 * stride);
+        unmerge(sorted, result, m + 1, r, start + stride, 2 * stride);
+    }
+
+    /**
+     * Writes {@code n} <b>unique</b> random integers in the range
+     * {@code [0, maxValue)} to a binary file, drawing the permutation keys
+     * from the calling thread's stream.
+     *
+     * @param file     the file to write
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values;
+     *                 must satisfy {@code n <= maxValue}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     * @throws IOException              if the file cannot be written
+     * @see #writeUniqueRandomFile(SplittableRandom, Path, int, int)
+     */
+    public static void writeUniqueRandomFile(Path file, int n, int maxValue) throws IOException {
+        writeUniqueRandomFile(threadStream(), file, n, maxValue);
+    }
+
+    /**
+     * Writes {@code n} <b>unique</b> random integers in the range
+     * {@code [0, maxValue)} straight to a binary file, holding at most
+     * {@link ExternalMergeSort#WINDOW_INTS} of them in memory.
+     * <p>
+     * Value {@code i} of the file is the image of {@code i} under a random
+     * bijection of {@code [0, maxValue)} (a keyed Feistel network with cycle
+     * walking), so uniqueness is guaranteed with O(1) memory. The values are
+     * written as 32-bit integers in {@link ExternalMergeSort#BYTE_ORDER},
+     * which is the format read by {@link ExternalMergeSort}, a window at a
+     * time through one reused direct buffer. Each window is filled in
+     * parallel; since
+     * value {@code i} depends only on {@code i} and the keys drawn from
+     * {@code random}, the file is the same whatever the number of threads.
+     * Any existing file is replaced.
+     *
+     * @param random   the stream the permutation keys are drawn from
+     * @param file     the file to write
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values;
+     *                 must satisfy {@code n <= maxValue}
+     * @throws IllegalArgumentException if {@code n > maxValue}
+     * @throws IOException              if the file cannot be written
+     */
+    public static void writeUniqueRandomFile(SplittableRandom random, Path file, int n, int maxValue)
+            throws IOException {
+        checkRange(n, maxValue);
+
+        RandomPermutation permutation = new RandomPermutation(random, maxValue);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            int[] window = new int[Math.min(n, ExternalMergeSort.WINDOW_INTS)];
+            ByteBuffer io = ByteBuffer.allocateDirect(Math.max(1, window.length) * Integer.BYTES);
+            long written = 0;
+            while (written < n) {
+                int count = (int) Math.min(window.length, n - written);
+                long base = written;
+                IntStream.range(0, count).parallel().forEach(i -> window[i] = permutation.apply(base + i));
+                ExternalMergeSort.writeInts(channel, written, window, count, io);
+                written += count;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Random bijection of {@code [0, size)} built from a balanced Feistel
+     * network over the smallest even-bit-width domain that covers
+     * {@code size}; images outside the range are re-encrypted until they
+     * fall inside it ("cycle walking"). The domain is less than four times
+     * {@code size}, so only a few rounds of walking are expected.
+     */
+    private static final class RandomPermutation {
+        private static final int ROUNDS = 4;
+
+        private final long size;
+        private final int halfBits;
+        private final long halfMask;
+        private final long[] keys = new long[ROUNDS];
+
+        RandomPermutation(SplittableRandom random, int size) {
+            this.size = size;
+            int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(size - 1L));
+            this.halfBits = (bits + 1) / 2;
+            this.halfMask = (1L << halfBits) - 1;
+            for (int r = 0; r < ROUNDS; r++) {
+                keys[r] = random.nextLong();
+            }
+        }
+
+        int apply(long index) {
+            long x = index;
+            do {
+                x = encrypt(x);
+            } while (x >= size);
+            return (int) x;
+        }
+
+        private long encrypt(long x) {
+            long left = x >>> halfBits;
+            long right = x & halfMask;
+            for (int r = 0; r < ROUNDS; r++) {
+                long next = left ^ (mix(right ^ keys[r]) & halfMask);
+                left = right;
+                right = next;
+            }
+            return (left << halfBits) | right;
+        }
+
+        /** 64-bit finalizer from SplitMix64. */
+        static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    /**
+     * Zipf sampler over ranks {@code 1..size} using the rejection-inversion
+     * method of H&ouml;rmann and Derflinger, which needs O(1) memory and an
+     * expected constant number of draws per sample.
+     */
+    private static final class ZipfSampler {
+        private final int size;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralSize;
+        private final double threshold;
+
+        ZipfSampler(int size, double exponent) {
+            if (size < 1 || !(exponent > 0)) {
+                throw new IllegalArgumentException(
+                    "Zipf needs a positive size and exponent: " + size + ", " + exponent
+                );
+            }
+            this.size = size;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralSize = hIntegral(size + 0.5);
+            this.threshold = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+        }
+
+        int sample(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralSize + random.nextDouble() * (hIntegralX1 - hIntegralSize);
+                double x = hIntegralInverse(u);
+                int k = (int) Math.max(1, Math.min(size, (long) (x + 0.5)));
+                if (k - x <= threshold || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        /** {@code h(x) = 1 / x^exponent}. */
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        /** Antiderivative of {@link #h}, shifted so it is continuous in the exponent. */
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return expm1OverX((1.0 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = Math.max(-1.0, x * (1.0 - exponent));
+            return Math.exp(log1pOverX(t) * x);
+        }
+
+        /** {@code expm1(x) / x}, accurate near zero. */
+        private static double expm1OverX(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.expm1(x) / x;
+            }
+            return 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+        }
+
+        /** {@code log1p(x) / x}, accurate near zero. */
+        private static double log1pOverX(double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.log1p(x) / x;
+            }
+            return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+    }
+
+    /** A per-thread stream and the seed it was derived from. */
+    private static final class ThreadStream {
+        final long seed;
+        final SplittableRandom random;
+
+        ThreadStream(long seed, SplittableRandom random) {
+            this.seed = seed;
+            this.random = random;
+        }
+    }
+
+    /**
+     * Minimal open-addressing hash set of non-negative {@code int}s used by
+     * Floyd's sampling, so membership checks do not box values.
+     */
+    private static final class IntHashSet {
+        /** Largest power-of-two table an {@code int[]} can hold. */
+        static final int MAX_CAPACITY = 1 << 30;
+
+        /** Slots hold {@code value + 1}; zero marks an empty slot. */
+        private final int[] slots;
+        private final int mask;
+        private final int shift;
+
+        /**
+         * @param expected the number of values that will be added
+         * @throws IllegalArgumentException if the table for
+         *                                  {@code expected} values would
+         *                                  exceed {@value #MAX_CAPACITY} slots
+         */
+        IntHashSet(int expected) {
+            // Power-of-two capacity keeping the load factor at or below 1/2
+            long capacity = Long.highestOneBit(Math.max(2L, expected) * 2 - 1) << 1;
+            if (capacity > MAX_CAPACITY) {
+                throw new IllegalArgumentException("Too many values for an IntHashSet: " + expected);
+            }
+            slots = new int[(int) capacity];
+            mask = slots.length - 1;
+            shift = 32 - Integer.numberOfTrailingZeros(slots.length);
+        }
+
+        /**
+         * Adds {@code value} to the set.
+         *
+         * @param value a value in {@code [0, Integer.MAX_VALUE)}
+         * @return {@code true} if the value was not already present
+         */
+        boolean add(int value) {
+            int stored = value + 1;
+            int i = (value * 0x9E3779B9) >>> shift; // Fibonacci hashing
+            while (slots[i] != 0) {
+                if (slots[i] == stored) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            slots[i] = stored;
+            return true;
+        }
+    }
 }
 
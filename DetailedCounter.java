@@ -0,0 +1,58 @@
+/**
+ * {@link OpCounter} that records comparisons, moves and allocations as
+ * separate totals.
+ * <p>
+ * A counter is confined to one thread; parallel engines {@link #fork()} one
+ * per task and {@link #join(OpCounter)} them after the tasks complete.
+ */
+public final class DetailedCounter implements OpCounter {
+
+    private long comparisons;
+    private long moves;
+    private long allocations;
+    private long bytesAllocated;
+
+    @Override
+    public void compare(long count) {
+        comparisons += count;
+    }
+
+    @Override
+    public void move(long count) {
+        moves += count;
+    }
+
+    @Override
+    public void allocate(long elements, int elementBytes) {
+        allocations++;
+        bytesAllocated += elements * elementBytes;
+    }
+
+    @Override
+    public OpCounter fork() {
+        return new DetailedCounter();
+    }
+
+    @Override
+    public void join(OpCounter child) {
+        DetailedCounter other = (DetailedCounter) child;
+        comparisons += other.comparisons;
+        moves += other.moves;
+        allocations += other.allocations;
+        bytesAllocated += other.bytesAllocated;
+    }
+
+    /**
+     * @return the total number of basic operations (comparisons plus moves)
+     */
+    public long ops() {
+        return comparisons + moves;
+    }
+
+    /**
+     * @return an immutable snapshot of the recorded counts
+     */
+    public SortStats toStats() {
+        return new SortStats(comparisons, moves, allocations, bytesAllocated);
+    }
+}
@@ -1,4 +1,10 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
 
 /**
  * Entry point for the CS-330 final project experiments.
@@ -7,29 +13,281 @@ import java.util.Arrays;
  * <ul>
  *     <li>The main empirical analysis for multiple array sizes</li>
  *     <li>Timing of the random data generator</li>
+ *     <li>Optional fitting of the measured growth, checked against a baseline</li>
  *     <li>A small Part 2 demonstration on a 25-element array</li>
  * </ul>
+ * The engines to analyze are taken from {@link SortRegistry} and can be
+ * chosen on the command line.
  */
 public class ExperimentRunner {
 
+    /** Default size limit of the input corpus, in MiB. */
+    private static final long DEFAULT_CORPUS_MB = 1024;
+
+    /**
+     * Share of {@code --budget} spent timing; the rest of each cell's share
+     * goes to its instrumented runs, which take about as long as the timed
+     * ones, and to generating its inputs.
+     */
+    private static final double TIMED_SHARE = 0.5;
+
     /**
      * Main method. Runs the full experiment for several array sizes and then
      * executes a small demonstration on a 25-element array.
+     * <p>
+     * Usage: {@code java ExperimentRunner [--list] [--baseline=NAME] [--seed=S]
+     * [--corpus[=DIR] [--corpus-mb=M]] [--workloads=W,...] [--workers=N [--exclusive]]
+     * [--budget=S [--precision=P]] [--fit] [--fit-baseline=FILE [--update-baseline] [--tolerance=T] [--time-tolerance=T]]
+     * [--external=N [--chunk=C]] [--partial] [ENGINE ...]}
+     * <ul>
+     *     <li>{@code ENGINE}: registered engine names to analyze; all
+     *         engines are analyzed when none are given</li>
+     *     <li>{@code --baseline=NAME}: also print each engine's speedup
+     *         relative to the named engine, which must be one of those analyzed</li>
+     *     <li>{@code --seed=S}: seed for all generated inputs; the seed of
+     *         every run is printed, so passing it back regenerates exactly
+     *         the same inputs, also with {@code --workers}</li>
+     *     <li>{@code --corpus[=DIR]}: load inputs from an {@link InputCorpus}
+     *         in {@code DIR} (by default {@code sort-corpus} in the temporary
+     *         directory), generating and storing only missing ones; combine
+     *         with {@code --seed} to reuse inputs across invocations</li>
+     *     <li>{@code --corpus-mb=M}: evict least recently used corpus entries
+     *         above {@code M} MiB (default {@value #DEFAULT_CORPUS_MB})</li>
+     *     <li>{@code --workloads=W,...}: after the standard cases, also
+     *         measure every engine on each named {@link Workload} (or
+     *         {@code all}), for every size</li>
+     *     <li>{@code --budget=S}: instead of timing each of the
+     *         {@code runs} inputs once, time every (engine, n, case) cell
+     *         with an {@link AdaptiveSampler} until the mean is known to
+     *         {@code ±P} (default 0.02) at 95% confidence or the cell's
+     *         share of {@code S} seconds runs out. Half of each share goes
+     *         to timing, the rest is left for the instrumented runs and
+     *         input generation. Cannot be combined with {@code --workers}</li>
+     *     <li>{@code --workers=N}: run the (engine, n, run) matrix concurrently
+     *         on {@code N} worker threads using {@link ExperimentScheduler}
+     *         and print one consolidated report at the end</li>
+     *     <li>{@code --exclusive}: with {@code --workers}, never run any
+     *         other sort while one is being timed</li>
+     *     <li>{@code --fit}: after the main experiment, fit each engine's
+     *         average-case operations and times across the sizes to O(n),
+     *         O(n log n), O(n log^2 n) and O(n^2) with
+     *         {@link ComplexityFit}</li>
+     *     <li>{@code --fit-baseline=FILE}: implies {@code --fit}; if
+     *         {@code FILE} exists, compare the fits with it and exit with
+     *         status 1 if any engine regressed, otherwise write it.
+     *         {@code --update-baseline} always rewrites it</li>
+     *     <li>{@code --tolerance=T}, {@code --time-tolerance=T}: allowed
+     *         relative growth of a fitted constant, and absolute growth of a
+     *         fitted exponent, for operations (default 0.05) and times
+     *         (by default times are not checked)</li>
+     *     <li>{@code --external=N}: instead of the in-memory experiment,
+     *         generate {@code N} unique values into a file and sort it with
+     *         {@link ExternalMergeSort}, {@code C} integers per in-memory
+     *         run (by default sized from the maximum heap)</li>
+     *     <li>{@code --partial}: instead of the full experiment, compare
+     *         the ways of finding the {@code k} smallest values in
+     *         {@link PartialSortAnalyzer}, for every size; with
+     *         {@code --budget}, every (method, n, k) cell is sampled</li>
+     *     <li>{@code --list}: print the registered engines and exit</li>
+     * </ul>
      *
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments as described above
+     * @throws InterruptedException if interrupted while waiting for
+     *                              scheduled experiments
+     * @throws IOException          if the external sort files or the
+     *                              baseline file cannot be written
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException, IOException {
         int[] sizes = {100, 1000, 10000, 50000};
         int runs = 10;
         int rangeMultiplier = 4;
 
+        List<String> names = new ArrayList<>();
+        String baselineName = null;
+        int workers = 0;
+        boolean exclusive = false;
+        int externalSize = 0;
+        int chunkSize = ExternalMergeSort.defaultChunkSize();
+        Path corpusDir = null;
+        long corpusMb = DEFAULT_CORPUS_MB;
+        List<Workload> workloads = List.of();
+        boolean partial = false;
+        double budgetSeconds = 0;
+        double precision = 0.02;
+        boolean fit = false;
+        Path fitBaseline = null;
+        boolean updateBaseline = false;
+        ComplexityFit.Tolerance tolerance = ComplexityFit.Tolerance.DEFAULT;
+        for (String arg : args) {
+            if (arg.equals("--list")) {
+                for (SortAlgorithm algorithm : SortRegistry.all()) {
+                    System.out.printf("%-16s %s (%s)%n",
+                            algorithm.name(), algorithm.displayName(), algorithm.complexity());
+                }
+                System.out.println();
+                for (Workload workload : Workload.values()) {
+                    System.out.printf("%-17s %s%n", workload.id(), workload.description());
+                }
+                return;
+            } else if (arg.startsWith("--baseline=")) {
+                baselineName = arg.substring("--baseline=".length());
+            } else if (arg.startsWith("--seed=")) {
+                DataGenerator.setSeed(Long.parseLong(arg.substring("--seed=".length())));
+            } else if (arg.equals("--corpus")) {
+                corpusDir = Path.of(System.getProperty("java.io.tmpdir"), "sort-corpus");
+            } else if (arg.startsWith("--corpus=")) {
+                corpusDir = Path.of(arg.substring("--corpus=".length()));
+            } else if (arg.startsWith("--corpus-mb=")) {
+                corpusMb = Long.parseLong(arg.substring("--corpus-mb=".length()));
+            } else if (arg.startsWith("--workloads=")) {
+                workloads = Workload.parse(arg.substring("--workloads=".length()));
+            } else if (arg.startsWith("--budget=")) {
+                budgetSeconds = Double.parseDouble(arg.substring("--budget=".length()));
+            } else if (arg.startsWith("--precision=")) {
+                precision = Double.parseDouble(arg.substring("--precision=".length()));
+            } else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(arg.substring("--workers=".length()));
+            } else if (arg.equals("--exclusive")) {
+                exclusive = true;
+            } else if (arg.startsWith("--external=")) {
+                externalSize = Integer.parseInt(arg.substring("--external=".length()));
+            } else if (arg.equals("--fit")) {
+                fit = true;
+            } else if (arg.startsWith("--fit-baseline=")) {
+                fit = true;
+                fitBaseline = Path.of(arg.substring("--fit-baseline=".length()));
+            } else if (arg.equals("--update-baseline")) {
+                updateBaseline = true;
+            } else if (arg.startsWith("--tolerance=")) {
+                tolerance = new ComplexityFit.Tolerance(
+                        Double.parseDouble(arg.substring("--tolerance=".length())), tolerance.time());
+            } else if (arg.startsWith("--time-tolerance=")) {
+                tolerance = new ComplexityFit.Tolerance(
+                        tolerance.ops(), Double.parseDouble(arg.substring("--time-tolerance=".length())));
+            } else if (arg.equals("--partial")) {
+                partial = true;
+            } else if (arg.startsWith("--chunk=")) {
+                chunkSize = Integer.parseInt(arg.substring("--chunk=".length()));
+            } else {
+                names.add(arg);
+            }
+        }
+
+        if (externalSize > 0) {
+            int maxValue = (int) Math.min(Integer.MAX_VALUE, (long) externalSize * rangeMultiplier);
+            ExternalMergeSort.analyze(externalSize, maxValue, chunkSize);
+            return;
+        }
+
+        if (corpusDir != null) {
+            SortHarness.useCorpus(new InputCorpus(corpusDir, corpusMb << 20));
+        }
+
+        if (partial) {
+            if (budgetSeconds > 0) {
+                // One cell per size, method and k
+                long cells = 0;
+                for (int n : sizes) {
+                    cells += PartialSortAnalyzer.cells(n);
+                }
+                SortHarness.useSampler(new AdaptiveSampler(precision,
+                        (long) (budgetSeconds * 1e9 * TIMED_SHARE / cells)));
+            }
+            for (int n : sizes) {
+                PartialSortAnalyzer.analyze(n, runs, rangeMultiplier);
+                System.out.println();
+            }
+            return;
+        }
+
+        List<SortAlgorithm> algorithms = names.isEmpty() ? SortRegistry.all() : SortRegistry.get(names);
+        int baselineIndex = -1;
+        if (baselineName != null) {
+            baselineIndex = algorithms.indexOf(SortRegistry.get(baselineName));
+            if (baselineIndex < 0) {
+                throw new IllegalArgumentException(
+                    "Baseline '" + baselineName + "' is not among the analyzed engines"
+                );
+            }
+        }
+
+        AdaptiveSampler sampler = null;
+        if (budgetSeconds > 0) {
+            if (workers > 0) {
+                throw new IllegalArgumentException("--budget cannot be combined with --workers");
+            }
+            // One cell per size, engine and case: average, best, worst and each workload
+            long cells = (long) sizes.length * algorithms.size() * (3 + workloads.size());
+            sampler = new AdaptiveSampler(precision, (long) (budgetSeconds * 1e9 * TIMED_SHARE / cells));
+            SortHarness.useSampler(sampler);
+        }
+
+        StringJoiner description = new StringJoiner(", ");
+        for (SortAlgorithm algorithm : algorithms) {
+            description.add(algorithm.displayName() + " (" + algorithm.complexity() + ")");
+        }
+
         System.out.println("==============================================================");
         System.out.println("           CS-330 Sorting Algorithm Analysis");
-        System.out.println("Algorithms: Selection Sort (O(n^2)) and Merge Sort (O(n log n))");
-        System.out.println("Runs per average-case test: " + runs);
+        System.out.println("Algorithms: " + description);
+        if (sampler != null) {
+            System.out.printf("Sampling: until ±%.1f%% at 95%% confidence, at most %s per cell, "
+                    + "average case over %d inputs%n", 100 * precision, formatTime(sampler.budgetNanos()), runs);
+        } else {
+            System.out.println("Runs per average-case test: " + runs);
+        }
+        System.out.println("Seed: " + DataGenerator.getSeed());
+        if (corpusDir != null) {
+            System.out.println("Input corpus: " + corpusDir);
+        }
         System.out.println("==============================================================\n");
 
         // PART 1 — Main experiment
+        List<AnalysisResult> results;
+        if (workers > 0) {
+            results = runScheduled(algorithms, sizes, runs, rangeMultiplier, baselineIndex,
+                    new ExperimentScheduler(workers, exclusive));
+        } else {
+            results = runSequential(algorithms, sizes, runs, rangeMultiplier, baselineIndex);
+        }
+
+        // Additional workloads, one report per size
+        if (!workloads.isEmpty()) {
+            runWorkloads(algorithms, workloads, sizes, runs, rangeMultiplier, baselineIndex);
+        }
+
+        // Growth of the measurements across sizes, checked against the baseline
+        List<String> regressions = List.of();
+        if (fit) {
+            regressions = runFit(results, fitBaseline, updateBaseline, tolerance);
+        }
+
+        // PART 2 — Small demonstration with 25 elements in [0, 99]
+        runPartTwoDemo(algorithms);
+
+        System.out.println("==============================================================");
+        System.out.println("                 Experiment Complete");
+        System.out.println("==============================================================");
+
+        if (!regressions.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the main experiment one size at a time on the calling thread,
+     * timing the random data generator for each size.
+     *
+     * @param algorithms      the engines to analyze
+     * @param sizes           the array sizes
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     * @param baselineIndex   index of the baseline engine, or {@code -1}
+     * @return the results, ordered by size, then by engine
+     */
+    private static List<AnalysisResult> runSequential(List<SortAlgorithm> algorithms, int[] sizes, int runs,
+                                                      int rangeMultiplier, int baselineIndex) {
+        List<AnalysisResult> all = new ArrayList<>();
         for (int n : sizes) {
             System.out.println("--------------------------------------------------------------");
             System.out.println("Array Size: n = " + n);
@@ -48,21 +306,127 @@ public class ExperimentRunner {
             System.out.println("  Theoretical complexity: O(n)");
             System.out.println();
 
-            // Analyze Selection Sort
-            SelectionSortAnalyzer.analyze(n, runs, rangeMultiplier);
-            System.out.println();
+            // Analyze every selected engine on the same inputs
+            List<AnalysisResult> results = SortHarness.analyze(algorithms, n, runs, rangeMultiplier);
+            printResults(results, baselineIndex);
+            all.addAll(results);
+        }
+        return all;
+    }
 
-            // Analyze Merge Sort
-            MergeSortAnalyzer.analyze(n, runs, rangeMultiplier);
+    /**
+     * Runs the whole (engine, n, run) matrix on an {@link ExperimentScheduler}
+     * and then prints the consolidated results, grouped by size.
+     *
+     * @param algorithms      the engines to analyze
+     * @param sizes           the array sizes
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     * @param baselineIndex   index of the baseline engine, or {@code -1}
+     * @param scheduler       the scheduler to run the matrix on
+     * @return the results, ordered by size, then by engine
+     * @throws InterruptedException if interrupted while waiting for the scheduler
+     */
+    private static List<AnalysisResult> runScheduled(List<SortAlgorithm> algorithms, int[] sizes, int runs,
+                                                     int rangeMultiplier, int baselineIndex,
+                                                     ExperimentScheduler scheduler) throws InterruptedException {
+        List<AnalysisResult> results = scheduler.run(algorithms, sizes, runs, rangeMultiplier);
+
+        // Results are ordered by size, then by engine
+        for (int s = 0; s < sizes.length; s++) {
+            System.out.println("--------------------------------------------------------------");
+            System.out.println("Array Size: n = " + sizes[s]);
+            System.out.println("--------------------------------------------------------------");
+            int from = s * algorithms.size();
+            printResults(results.subList(from, from + algorithms.size()), baselineIndex);
+        }
+        return results;
+    }
+
+    /**
+     * Fits the growth of every engine's measurements across the sizes and
+     * prints the fits. With a baseline file, either compares the fits with
+     * it and prints every regression, or writes the fits to it if it does
+     * not exist yet or {@code update} is set.
+     *
+     * @param results   the results of the main experiment
+     * @param baseline  the baseline file, or {@code null}
+     * @param update    whether to rewrite an existing baseline file
+     * @param tolerance the allowed growth relative to the baseline
+     * @return one message per regression; empty if there is none
+     * @throws IOException if the baseline file cannot be read or written
+     */
+    private static List<String> runFit(List<AnalysisResult> results, Path baseline, boolean update,
+                                       ComplexityFit.Tolerance tolerance) throws IOException {
+        System.out.println("--------------------------------------------------------------");
+        List<ComplexityFit.Result> fits = ComplexityFit.fit(results);
+        ComplexityFit.print(fits);
+        System.out.println();
+
+        if (baseline == null) {
+            return List.of();
+        }
+        if (update || !Files.exists(baseline)) {
+            ComplexityFit.store(fits, baseline);
+            System.out.println("Baseline written to " + baseline);
             System.out.println();
+            return List.of();
         }
 
-        // PART 2 — Small demonstration with 25 elements in [0, 99]
-        runPartTwoDemo();
+        List<String> regressions = ComplexityFit.compare(fits, baseline, tolerance);
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against " + baseline);
+        } else {
+            System.out.println("Regressions against " + baseline + ":");
+            for (String regression : regressions) {
+                System.out.println("  " + regression);
+            }
+        }
+        System.out.println();
+        return regressions;
+    }
 
-        System.out.println("==============================================================");
-        System.out.println("                 Experiment Complete");
-        System.out.println("==============================================================");
+    /**
+     * Measures every engine on each of the given workloads, for every size,
+     * and prints one line per engine and workload.
+     *
+     * @param algorithms      the engines to analyze
+     * @param workloads       the workloads to run
+     * @param sizes           the array sizes
+     * @param runs            the number of inputs per workload
+     * @param rangeMultiplier multiplier to determine maximum value
+     * @param baselineIndex   index of the baseline engine, or {@code -1}
+     */
+    private static void runWorkloads(List<SortAlgorithm> algorithms, List<Workload> workloads, int[] sizes,
+                                     int runs, int rangeMultiplier, int baselineIndex) {
+        for (int n : sizes) {
+            System.out.println("--------------------------------------------------------------");
+            System.out.println("Workloads: n = " + n);
+            System.out.println("--------------------------------------------------------------");
+            for (Workload workload : workloads) {
+                List<AnalysisResult.Case> results =
+                        SortHarness.analyze(algorithms, workload, n, runs, rangeMultiplier);
+                SortHarness.printWorkload(workload, n, algorithms, results, baselineIndex);
+                System.out.println();
+            }
+        }
+    }
+
+    /**
+     * Prints the results for one array size, followed by each engine's
+     * speedup relative to the baseline if one was chosen.
+     *
+     * @param results       one result per engine
+     * @param baselineIndex index of the baseline engine, or {@code -1}
+     */
+    private static void printResults(List<AnalysisResult> results, int baselineIndex) {
+        for (int i = 0; i < results.size(); i++) {
+            SortHarness.print(results.get(i));
+            if (baselineIndex >= 0 && i != baselineIndex) {
+                SortHarness.printSpeedup(results.get(i), results.get(baselineIndex));
+            }
+            System.out.println();
+        }
     }
 
     /**
@@ -70,12 +434,14 @@ public class ExperimentRunner {
      * <ul>
      *     <li>Generates a unique random array of 25 integers in [0, 99]</li>
      *     <li>Displays the original array</li>
-     *     <li>Sorts the array using Selection Sort and Merge Sort</li>
+     *     <li>Sorts the array using each selected engine</li>
      *     <li>Prints the sorted arrays and the corresponding operation counts</li>
      *     <li>Reports the time taken by the generator</li>
      * </ul>
+     *
+     * @param algorithms the engines to demonstrate
      */
-    private static void runPartTwoDemo() {
+    private static void runPartTwoDemo(List<SortAlgorithm> algorithms) {
         System.out.println();
         System.out.println("********************** PART 2 DEMO ***************************");
         System.out.println("Random UNIQUE array of 25 integers in [0, 99]");
@@ -93,20 +459,14 @@ public class ExperimentRunner {
         System.out.println("  " + Arrays.toString(original));
         System.out.println();
 
-        int[] selectionArray = original.clone();
-        int[] mergeArray = original.clone();
-
-        long selOps = SelectionSortAnalyzer.demoSelectionSort(selectionArray);
-        System.out.println("After Selection Sort:");
-        System.out.println("  " + Arrays.toString(selectionArray));
-        System.out.println("  Operations: " + selOps);
-        System.out.println();
-
-        long mergeOps = MergeSortAnalyzer.demoMergeSort(mergeArray);
-        System.out.println("After Merge Sort:");
-        System.out.println("  " + Arrays.toString(mergeArray));
-        System.out.println("  Operations: " + mergeOps);
-        System.out.println();
+        for (SortAlgorithm algorithm : algorithms) {
+            int[] sorted = original.clone();
+            SortStats stats = algorithm.sort(sorted);
+            System.out.println("After " + algorithm.displayName() + ":");
+            System.out.println("  " + Arrays.toString(sorted));
+            System.out.println("  Operations: " + stats.ops());
+            System.out.println();
+        }
 
         System.out.println("Random number generator time for n = 25: " + formatTime(genTime));
         System.out.println("**************************************************************");
@@ -120,9 +480,6 @@ public class ExperimentRunner {
      * @return formatted string with appropriate units
      */
     private static String formatTime(long nanos) {
-        if (nanos < 1_000) return nanos + " ns";
-        if (nanos < 1_000_000) return String.format("%.3f µs", nanos / 1_000.0);
-        if (nanos < 1_000_000_000) return String.format("%.3f ms", nanos / 1_000_000.0);
-        return String.format("%.3f s", nanos / 1_000_000_000.0);
+        return SortHarness.formatTime(nanos);
     }
 }
@@ -0,0 +1,264 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent scheduler for the (algorithm, n, run) experiment matrix.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Generates every input (each average-case run plus the best- and
+ *         worst-case array for each size) on a dedicated generator thread</li>
+ *     <li>Fans each input out as one measurement cell per engine onto a
+ *         pool of worker threads</li>
+ *     <li>Keeps at most {@code prefetch} inputs in flight, so generation
+ *         stays ahead of the workers without holding the whole matrix in
+ *         memory</li>
+ *     <li>Optionally runs the timed part of every cell exclusively, so
+ *         nothing else the scheduler does, neither another sort nor input
+ *         generation, perturbs its timing; instrumented runs and generation
+ *         may still overlap each other</li>
+ *     <li>Collects all cells into one {@link AnalysisResult} per
+ *         (algorithm, n), in the same form as {@link SortHarness}</li>
+ * </ul>
+ */
+public class ExperimentScheduler {
+
+    private final int workers;
+    private final int prefetch;
+    private final boolean exclusive;
+
+    /**
+     * In exclusive mode, timed sorts hold the write lock, and instrumented
+     * sorts and input generation the read lock, so a timed sort never
+     * overlaps any other work of the scheduler.
+     */
+    private final ReentrantReadWriteLock measurementLock = new ReentrantReadWriteLock(true);
+
+    /**
+     * Creates a scheduler that prefetches two inputs per worker.
+     *
+     * @param workers   the number of worker threads; must be at least 1
+     * @param exclusive whether timed sorts must never overlap
+     * @throws IllegalArgumentException if {@code workers < 1}
+     */
+    public ExperimentScheduler(int workers, boolean exclusive) {
+        this(workers, exclusive, 2 * workers);
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param workers   the number of worker threads; must be at least 1
+     * @param exclusive whether timed sorts must never overlap
+     * @param prefetch  the maximum number of generated inputs waiting for or
+     *                  being processed by workers; must be at least 1
+     * @throws IllegalArgumentException if {@code workers} or {@code prefetch}
+     *                                  is less than 1
+     */
+    public ExperimentScheduler(int workers, boolean exclusive, int prefetch) {
+        if (workers < 1 || prefetch < 1) {
+            throw new IllegalArgumentException(
+                "Workers and prefetch must be at least 1: " + workers + ", " + prefetch
+            );
+        }
+        this.workers = workers;
+        this.exclusive = exclusive;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Runs the full matrix and returns the consolidated results.
+     *
+     * @param algorithms      the engines to measure
+     * @param sizes           the array sizes
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     * @return one result per (size, engine), ordered by size and then engine
+     * @throws InterruptedException if interrupted while waiting for cells
+     */
+    public List<AnalysisResult> run(List<SortAlgorithm> algorithms, int[] sizes, int runs,
+                                    int rangeMultiplier) throws InterruptedException {
+        Tally[][] tallies = new Tally[sizes.length][algorithms.size()];
+        for (Tally[] row : tallies) {
+            for (int a = 0; a < row.length; a++) {
+                row[a] = new Tally();
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, namedThreads("sort-worker"));
+        ExecutorService generator = Executors.newSingleThreadExecutor(namedThreads("sort-generator"));
+        Semaphore inFlight = new Semaphore(prefetch);
+        Queue<Future<?>> cells = new ConcurrentLinkedQueue<>();
+
+        Future<?> generation = generator.submit(() -> {
+            for (int s = 0; s < sizes.length; s++) {
+                int n = sizes[s];
+                int maxValue = n * rangeMultiplier;
+
+                // runs average-case inputs, then the best and the worst case
+                for (int i = 0; i < runs + 2; i++) {
+                    inFlight.acquire();
+                    int index = i;
+                    int[] input = shared(() -> SortHarness.input(n, maxValue, index, runs));
+
+                    int kind = i < runs ? Tally.AVERAGE : (i == runs ? Tally.BEST : Tally.WORST);
+                    AtomicInteger remaining = new AtomicInteger(algorithms.size());
+                    for (int a = 0; a < algorithms.size(); a++) {
+                        SortAlgorithm algorithm = algorithms.get(a);
+                        Tally tally = tallies[s][a];
+                        cells.add(pool.submit(() -> {
+                            try {
+                                SortAlgorithm.Timing timing = time(algorithm, input);
+                                SortStats stats = shared(() -> algorithm.sort(input.clone()));
+                                tally.record(kind, new AnalysisResult.Case(stats, timing.nanos(), timing.jvm()));
+                            } finally {
+                                if (remaining.decrementAndGet() == 0) {
+                                    inFlight.release();
+                                }
+                            }
+                        }));
+                    }
+                }
+            }
+            return null;
+        });
+
+        try {
+            await(generation);
+            for (Future<?> cell : cells) {
+                await(cell);
+            }
+        } finally {
+            generator.shutdownNow();
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        List<AnalysisResult> results = new ArrayList<>();
+        for (int s = 0; s < sizes.length; s++) {
+            for (int a = 0; a < algorithms.size(); a++) {
+                results.add(tallies[s][a].toResult(algorithms.get(a), sizes[s], runs));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Times a single uninstrumented sort, holding the write side of the
+     * measurement lock in exclusive mode.
+     *
+     * @param algorithm the engine to run
+     * @param input     the input, which the engine copies before sorting
+     * @return the elapsed time and JVM activity
+     */
+    private SortAlgorithm.Timing time(SortAlgorithm algorithm, int[] input) {
+        if (!exclusive) {
+            return SortHarness.time(algorithm, input);
+        }
+        Lock lock = measurementLock.writeLock();
+        lock.lock();
+        try {
+            return SortHarness.time(algorithm, input);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs untimed work (an instrumented sort or input generation), holding
+     * the read side of the measurement lock in exclusive mode: such work may
+     * overlap other untimed work, but not a timed sort.
+     *
+     * @param task the work to run
+     * @return its result
+     */
+    private <T> T shared(Supplier<T> task) {
+        if (!exclusive) {
+            return task.get();
+        }
+        Lock lock = measurementLock.readLock();
+        lock.lock();
+        try {
+            return task.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a task and rethrows its failure unchecked.
+     */
+    private static void await(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @return a factory for daemon threads named {@code prefix-1, prefix-2, ...}
+     */
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Accumulates the cells of one (size, engine) pair.
+     */
+    private static final class Tally {
+        static final int AVERAGE = 0;
+        static final int BEST = 1;
+        static final int WORST = 2;
+
+        private SortStats totalStats = SortStats.ZERO;
+        private long totalNanos;
+        private JvmStats totalJvm = JvmStats.ZERO;
+        private AnalysisResult.Case best;
+        private AnalysisResult.Case worst;
+
+        synchronized void record(int kind, AnalysisResult.Case measured) {
+            if (kind == AVERAGE) {
+                totalStats = totalStats.plus(measured.stats());
+                totalNanos += measured.nanos();
+                totalJvm = totalJvm.plus(measured.jvm());
+            } else if (kind == BEST) {
+                best = measured;
+            } else {
+                worst = measured;
+            }
+        }
+
+        synchronized AnalysisResult toResult(SortAlgorithm algorithm, int n, int runs) {
+            AnalysisResult.Case average =
+                    new AnalysisResult.Case(totalStats.dividedBy(runs), totalNanos / runs, totalJvm);
+            return new AnalysisResult(algorithm, n, average, best, worst);
+        }
+    }
+}
@@ -0,0 +1,522 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * External-memory Merge Sort for binary files of 32-bit integers that do not
+ * fit in the heap.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Reads the input in heap-sized chunks and sorts each chunk with
+ *         {@link MergeSortAnalyzer#bufferedMergeSort(int[])}</li>
+ *     <li>Writes each sorted chunk as a run into a temporary file</li>
+ *     <li>Merges the runs in k-way passes of at most {@value #MAX_FAN_IN}
+ *         runs each, using a binary min-heap keyed on the current head of
+ *         each run, until one run is left</li>
+ *     <li>Measures operation counts and wall-clock time for datasets
+ *         written by {@link DataGenerator#writeUniqueRandomFile}</li>
+ * </ul>
+ * All file access goes through {@link FileChannel#read} and
+ * {@link FileChannel#write} on a few direct buffers that are allocated once
+ * per sort and reused: one of {@link #WINDOW_INTS} integers for the chunks
+ * and the merge output, and one of {@value #MERGE_BUFFER_INTS} integers per
+ * merged run. Nothing is memory-mapped, so the number of runs is limited
+ * only by disk space, and nothing is read or written per element through
+ * streams.
+ */
+public class ExternalMergeSort {
+
+    /** Byte order of the binary integer files read and written by this class. */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** Number of integers transferred per chunk I/O call (4 MiB). */
+    public static final int WINDOW_INTS = 1 << 20;
+
+    /** Most runs merged at once; more runs take several merge passes. */
+    public static final int MAX_FAN_IN = 128;
+
+    /** Number of integers buffered per run while merging (256 KiB). */
+    public static final int MERGE_BUFFER_INTS = 1 << 16;
+
+    /**
+     * Generates {@code n} unique random values into a temporary file, sorts
+     * the file externally and prints the operation count, the number of runs
+     * and merge passes and the wall-clock time of each phase.
+     * <p>
+     * The file is sorted twice: once while counting operations and once,
+     * timed, with {@link OpCounter#NONE}, as {@link SortHarness} does.
+     *
+     * @param n         the number of integers to sort
+     * @param maxValue  the upper bound (exclusive) for generated values
+     * @param chunkSize the number of integers sorted in memory per run
+     * @throws IOException if the temporary files cannot be written
+     */
+    public static void analyze(int n, int maxValue, int chunkSize) throws IOException {
+        Path dir = Files.createTempDirectory("external-sort");
+        Path input = dir.resolve("input.bin");
+        Path output = dir.resolve("output.bin");
+
+        try {
+            long genStart = System.nanoTime();
+            DataGenerator.writeUniqueRandomFile(input, n, maxValue);
+            long genEnd = System.nanoTime();
+
+            long ops = externalSort(input, output, chunkSize);
+
+            long sortStart = System.nanoTime();
+            externalSort(input, output, chunkSize, OpCounter.NONE);
+            long sortEnd = System.nanoTime();
+
+            long runs = (n + (long) chunkSize - 1) / chunkSize;
+
+            System.out.println("External Merge Sort (n = " + n + ", chunk = " + chunkSize
+                    + ", runs = " + runs + ", merge passes = " + mergePasses(runs) + "):");
+            System.out.println("  Generate file: " + SortHarness.formatTime(genEnd - genStart));
+            System.out.printf("  Sort file   : ops = %d, time = %s%n",
+                    ops, SortHarness.formatTime(sortEnd - sortStart));
+            System.out.println("  Output sorted: " + isSorted(output));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Chooses a chunk size that leaves room for the chunk and the merge
+     * scratch buffer within a quarter of the maximum heap size.
+     *
+     * @return a chunk size in integers
+     */
+    public static int defaultChunkSize() {
+        long ints = Runtime.getRuntime().maxMemory() / 4 / (2L * Integer.BYTES);
+        return (int) Math.max(WINDOW_INTS, Math.min(ints, Integer.MAX_VALUE - 8));
+    }
+
+    /**
+     * Sorts the integers in {@code input} into {@code output} while counting
+     * basic operations.
+     * <p>
+     * Operations are counted as the sum of the in-memory sorts of every run
+     * (as defined by {@link MergeSortAnalyzer#bufferedMergeSort(int[])}) plus,
+     * for every k-way merge pass, one per heap comparison and one per
+     * assignment to the pass's output.
+     *
+     * @param input     a file of 32-bit integers in {@link #BYTE_ORDER}
+     * @param output    the file to write the sorted integers to; replaced if
+     *                  it exists
+     * @param chunkSize the number of integers sorted in memory per run; must
+     *                  be at least 1
+     * @return the number of basic operations performed
+     * @throws IllegalArgumentException if {@code chunkSize < 1}
+     * @throws IOException              if a file cannot be read or written
+     */
+    public static long externalSort(Path input, Path output, int chunkSize) throws IOException {
+        DetailedCounter counter = new DetailedCounter();
+        externalSort(input, output, chunkSize, counter);
+        return counter.ops();
+    }
+
+    /**
+     * Sorts the integers in {@code input} into {@code output}, reporting its
+     * work to {@code counter}.
+     *
+     * @param input     a file of 32-bit integers in {@link #BYTE_ORDER}
+     * @param output    the file to write the sorted integers to; replaced if
+     *                  it exists
+     * @param chunkSize the number of integers sorted in memory per run; must
+     *                  be at least 1
+     * @param counter   receives the operations performed; {@link OpCounter#NONE}
+     *                  for an uninstrumented run
+     * @throws IllegalArgumentException if {@code chunkSize < 1}
+     * @throws IOException              if a file cannot be read or written
+     * @see #externalSort(Path, Path, int)
+     */
+    public static void externalSort(Path input, Path output, int chunkSize, OpCounter counter)
+            throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkSize);
+        }
+
+        Path dir = output.toAbsolutePath().getParent();
+        Path runsFile = Files.createTempFile(dir, "runs", ".bin");
+        Path spareFile = Files.createTempFile(dir, "runs", ".bin");
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel runs = FileChannel.open(runsFile, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+             FileChannel spare = FileChannel.open(spareFile, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            long total = in.size() / Integer.BYTES;
+            if (total == 0) {
+                return;
+            }
+
+            // A single chunk is sorted in memory and written straight out
+            FileChannel runTarget = total <= chunkSize ? out : runs;
+
+            int[] chunk = new int[(int) Math.min(chunkSize, total)];
+            ByteBuffer io = ioBuffer(chunk.length);
+
+            // Phase 1: sort heap-sized chunks into runs
+            for (long start = 0; start < total; start += chunkSize) {
+                int length = (int) Math.min(chunkSize, total - start);
+                int[] run = length == chunk.length ? chunk : Arrays.copyOf(chunk, length);
+
+                readInts(in, start, run, length, io);
+                MergeSortAnalyzer.bufferedMergeSort(run, counter);
+                writeInts(runTarget, start, run, length, io);
+            }
+
+            if (runTarget == out) {
+                return;
+            }
+
+            // Phase 2: k-way merge passes until one run is left
+            mergeRuns(runs, spare, total, chunkSize, out, counter);
+        } finally {
+            Files.deleteIfExists(runsFile);
+            Files.deleteIfExists(spareFile);
+        }
+    }
+
+    /**
+     * Merges the sorted runs of {@code chunkSize} integers stored back to back
+     * in {@code runs} into {@code out}, at most {@link #MAX_FAN_IN} runs at a
+     * time. Every pass but the last merges groups of runs into longer runs in
+     * {@code spare}; the two files then swap roles.
+     */
+    private static void mergeRuns(FileChannel runs, FileChannel spare, long total, int chunkSize,
+                                  FileChannel out, OpCounter counter) throws IOException {
+        long width = chunkSize;
+        long count = (total + width - 1) / width;
+
+        ByteBuffer[] buffers = new ByteBuffer[(int) Math.min(count, MAX_FAN_IN)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(MERGE_BUFFER_INTS * Integer.BYTES).order(BYTE_ORDER);
+        }
+        RunWriter writer = new RunWriter(ByteBuffer.allocateDirect(WINDOW_INTS * Integer.BYTES));
+
+        FileChannel source = runs;
+        while (count > 1) {
+            boolean last = count <= MAX_FAN_IN;
+            FileChannel target = last ? out : spare;
+            long groupWidth = width * MAX_FAN_IN;
+
+            writer.reset(target);
+            for (long group = 0; group < total; group += groupWidth) {
+                long groupEnd = Math.min(group + groupWidth, total);
+                mergeGroup(source, group, groupEnd, width, buffers, writer, counter);
+            }
+            writer.flush();
+
+            spare = source;
+            source = target;
+            width = groupWidth;
+            count = (count + MAX_FAN_IN - 1) / MAX_FAN_IN;
+        }
+    }
+
+    /**
+     * Merges the runs of {@code width} integers in {@code source[start, end)}
+     * into one run through {@code writer}, reporting the heap comparisons
+     * and output assignments to {@code counter} once at the end.
+     */
+    private static void mergeGroup(FileChannel source, long start, long end, long width, ByteBuffer[] buffers,
+                                   RunWriter writer, OpCounter counter) throws IOException {
+        long compares = 0;
+        long moves = 0;
+
+        int k = (int) ((end - start + width - 1) / width);
+        RunCursor[] cursors = new RunCursor[k];
+        for (int r = 0; r < k; r++) {
+            long from = start + r * width;
+            cursors[r] = new RunCursor(source, from, Math.min(from + width, end), buffers[r]);
+        }
+
+        // Binary min-heap of run indices, keyed on each run's current head
+        int[] heap = new int[k];
+        for (int r = 0; r < k; r++) {
+            heap[r] = r;
+        }
+        int size = k;
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            compares += siftDown(heap, size, i, cursors);
+        }
+
+        while (size > 0) {
+            RunCursor top = cursors[heap[0]];
+            writer.put(top.head);
+            moves++;
+
+            if (!top.advance()) {
+                heap[0] = heap[--size];
+            }
+            if (size > 0) {
+                compares += siftDown(heap, size, 0, cursors);
+            }
+        }
+
+        counter.compare(compares);
+        counter.move(moves);
+    }
+
+    /**
+     * Restores the heap property below index {@code i}.
+     *
+     * @return the number of comparisons performed
+     */
+    private static long siftDown(int[] heap, int size, int i, RunCursor[] cursors) {
+        long ops = 0;
+        int run = heap[i];
+        int value = cursors[run].head;
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size) {
+                ops++; // comparison between siblings
+                if (cursors[heap[child + 1]].head < cursors[heap[child]].head) {
+                    child++;
+                }
+            }
+            ops++; // comparison with the sifted element
+            if (value <= cursors[heap[child]].head) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = run;
+        return ops;
+    }
+
+    /**
+     * @param runs the number of sorted runs
+     * @return the number of merge passes needed to merge {@code runs} runs
+     *         into one with a fan-in of {@link #MAX_FAN_IN}
+     */
+    public static int mergePasses(long runs) {
+        int passes = 0;
+        while (runs > 1) {
+            runs = (runs + MAX_FAN_IN - 1) / MAX_FAN_IN;
+            passes++;
+        }
+        return passes;
+    }
+
+    /**
+     * Streams through a stored run, refilling a buffer of its own.
+     */
+    private static final class RunCursor {
+        private final FileChannel channel;
+        private final long end;
+        private final ByteBuffer buffer;
+        private long next;
+
+        /** Current (smallest unread) element of the run. */
+        int head;
+
+        RunCursor(FileChannel channel, long start, long end, ByteBuffer buffer) throws IOException {
+            this.channel = channel;
+            this.end = end;
+            this.buffer = buffer;
+            this.next = start;
+            buffer.clear().flip();
+            advance();
+        }
+
+        /**
+         * Moves to the next element of the run.
+         *
+         * @return {@code false} if the run is exhausted
+         * @throws IOException if the run cannot be read
+         */
+        boolean advance() throws IOException {
+            if (!buffer.hasRemaining()) {
+                if (next >= end) {
+                    return false;
+                }
+                int count = (int) Math.min(buffer.capacity() / Integer.BYTES, end - next);
+                fill(channel, next, buffer, count);
+                next += count;
+            }
+            head = buffer.getInt();
+            return true;
+        }
+    }
+
+    /**
+     * Writes a run sequentially to a file through one buffer.
+     */
+    private static final class RunWriter {
+        private final ByteBuffer buffer;
+        private FileChannel channel;
+        private long position;
+
+        RunWriter(ByteBuffer buffer) {
+            this.buffer = buffer.order(BYTE_ORDER);
+        }
+
+        /** Starts writing at the beginning of {@code target}. */
+        void reset(FileChannel target) {
+            channel = target;
+            position = 0;
+            buffer.clear();
+        }
+
+        void put(int value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        /** Writes out whatever is buffered. */
+        void flush() throws IOException {
+            buffer.flip();
+            position += drain(channel, position * Integer.BYTES, buffer) / Integer.BYTES;
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads {@code length} integers starting at integer index {@code start}
+     * of {@code channel} into {@code dst}.
+     *
+     * @throws UncheckedIOException if the channel cannot be read
+     */
+    static void readInts(FileChannel channel, long start, int[] dst, int length) {
+        readInts(channel, start, dst, length, ioBuffer(length));
+    }
+
+    /**
+     * Reads {@code length} integers starting at integer index {@code start}
+     * of {@code channel} into {@code dst}, through {@code io}.
+     *
+     * @throws UncheckedIOException if the channel cannot be read
+     */
+    static void readInts(FileChannel channel, long start, int[] dst, int length, ByteBuffer io) {
+        int step = io.capacity() / Integer.BYTES;
+        try {
+            for (int offset = 0; offset < length; offset += step) {
+                int count = Math.min(step, length - offset);
+                fill(channel, start + offset, io, count);
+                io.order(BYTE_ORDER).asIntBuffer().get(dst, offset, count);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the first {@code length} integers of {@code src} to
+     * {@code channel} starting at integer index {@code start}.
+     *
+     * @throws UncheckedIOException if the channel cannot be written
+     */
+    static void writeInts(FileChannel channel, long start, int[] src, int length) {
+        writeInts(channel, start, src, length, ioBuffer(length));
+    }
+
+    /**
+     * Writes the first {@code length} integers of {@code src} to
+     * {@code channel} starting at integer index {@code start}, through
+     * {@code io}.
+     *
+     * @throws UncheckedIOException if the channel cannot be written
+     */
+    static void writeInts(FileChannel channel, long start, int[] src, int length, ByteBuffer io) {
+        int step = io.capacity() / Integer.BYTES;
+        try {
+            for (int offset = 0; offset < length; offset += step) {
+                int count = Math.min(step, length - offset);
+                io.clear().limit(count * Integer.BYTES);
+                io.order(BYTE_ORDER).asIntBuffer().put(src, offset, count);
+                drain(channel, (start + offset) * Integer.BYTES, io);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return a direct buffer for transferring up to {@code length}
+     *         integers, at most {@link #WINDOW_INTS} at a time
+     */
+    private static ByteBuffer ioBuffer(int length) {
+        return ByteBuffer.allocateDirect(Math.max(1, Math.min(length, WINDOW_INTS)) * Integer.BYTES);
+    }
+
+    /**
+     * Reads {@code count} integers starting at integer index {@code start}
+     * into {@code buffer} and flips it for reading.
+     *
+     * @throws EOFException if the file ends first
+     */
+    private static void fill(FileChannel channel, long start, ByteBuffer buffer, int count) throws IOException {
+        buffer.clear().limit(count * Integer.BYTES);
+        long position = start * Integer.BYTES;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("File ends before integer " + (start + count));
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Writes the remaining bytes of {@code buffer} at byte {@code position}.
+     *
+     * @return the number of bytes written
+     */
+    private static int drain(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * Checks that a file of integers is in non-decreasing order.
+     *
+     * @param file a file of 32-bit integers in {@link #BYTE_ORDER}
+     * @return {@code true} if the file is sorted
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isSorted(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long total = channel.size() / Integer.BYTES;
+            ByteBuffer buffer = ioBuffer((int) Math.min(total, WINDOW_INTS)).order(BYTE_ORDER);
+            int previous = Integer.MIN_VALUE;
+            for (long start = 0; start < total; start += WINDOW_INTS) {
+                fill(channel, start, buffer, (int) Math.min(WINDOW_INTS, total - start));
+                while (buffer.hasRemaining()) {
+                    int value = buffer.getInt();
+                    if (value < previous) {
+                        return false;
+                    }
+                    previous = value;
+                }
+            }
+            return true;
+        }
+    }
+}
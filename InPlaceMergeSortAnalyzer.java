@@ -0,0 +1,302 @@
+import java.util.List;
+
+/**
+ * Analyzer class for a stable Merge Sort that needs only
+ * {@code ceil(sqrt(n))} auxiliary ints instead of {@code n}.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Insertion-sorts blocks of {@value #INSERTION_BLOCK} elements in place,
+ *         then merges runs of width 32, 64, 128, ... bottom-up</li>
+ *     <li>Merges two runs through a buffer of {@code ceil(sqrt(n))} ints
+ *         when the shorter run fits in it</li>
+ *     <li>Otherwise splits the merge in two by rotation (as in
+ *         {@code std::inplace_merge}): the middle element of the longer run
+ *         is located in the other run by binary search, the two inner
+ *         pieces are rotated past each other, and each half is merged
+ *         recursively until the shorter side fits in the buffer</li>
+ *     <li>Reports its peak auxiliary memory and its time penalty against
+ *         {@link MergeSortAnalyzer}</li>
+ * </ul>
+ * Apart from the buffer, only the O(log n) frames of the rotation recursion
+ * are used, so the largest array that can be sorted is about the whole heap
+ * rather than half of it. The price is extra element moves: merging two
+ * runs of total length {@code m} moves O(m log(m / sqrt(n))) elements, for
+ * O(n log^2 n) in total, while comparisons stay O(n log n).
+ */
+public class InPlaceMergeSortAnalyzer {
+
+    /** Width of the blocks that are insertion-sorted first. */
+    private static final int INSERTION_BLOCK = 32;
+
+    /**
+     * Executes an empirical analysis of the in-place Merge Sort for the
+     * given array size {@code n}, side by side with the classic and the
+     * single-buffer Merge Sort on the same inputs.
+     * <p>
+     * It prints the number of operations, wall-clock time and JVM activity
+     * for the average, best and worst cases, the speedup relative to the
+     * classic Merge Sort (below 1 is the time penalty), and the peak
+     * auxiliary memory of each engine.
+     *
+     * @param n               the array size to sort
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     */
+    public static void analyze(int n, int runs, int rangeMultiplier) {
+        List<AnalysisResult> results = SortHarness.analyze(
+                SortRegistry.get(List.of("merge", "merge-buffered", "merge-inplace")), n, runs, rangeMultiplier);
+
+        AnalysisResult classic = results.get(0);
+        for (AnalysisResult result : results) {
+            SortHarness.print(result);
+            if (result != classic) {
+                SortHarness.printSpeedup(result, classic);
+            }
+        }
+
+        // Classic: L and R of the top-level merge; buffered: the scratch array
+        long full = (long) n * Integer.BYTES;
+        long inPlace = (long) bufferSize(n) * Integer.BYTES;
+        System.out.printf("  Peak auxiliary memory: %s = %s, %s = %s, %s = %s (%.2f%% of n)%n",
+                results.get(0).algorithm().name(), SortHarness.formatBytes(full),
+                results.get(1).algorithm().name(), SortHarness.formatBytes(full),
+                results.get(2).algorithm().name(), SortHarness.formatBytes(inPlace),
+                100.0 * bufferSize(n) / Math.max(1, n));
+    }
+
+    /**
+     * @param n the array size
+     * @return the number of auxiliary ints used to sort {@code n} elements,
+     *         {@code ceil(sqrt(n))}
+     */
+    public static int bufferSize(int n) {
+        int root = (int) Math.sqrt(n);
+        return root * root < n ? root + 1 : root;
+    }
+
+    /**
+     * Sorts {@code arr} with the in-place Merge Sort while counting basic
+     * operations.
+     * <p>
+     * One operation is counted per comparison (including every probe of a
+     * binary search) and one per element assignment (including copies into
+     * and out of the buffer). Swaps made while reversing count three
+     * assignments, as in {@link SelectionSortAnalyzer}.
+     *
+     * @param arr the array to sort in-place
+     * @return the number of basic operations performed
+     */
+    public static long inPlaceMergeSort(int[] arr) {
+        DetailedCounter counter = new DetailedCounter();
+        inPlaceMergeSort(arr, counter);
+        return counter.ops();
+    }
+
+    /**
+     * Sorts {@code arr} with the in-place Merge Sort, reporting its work to
+     * {@code counter}. The sort is stable.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @see #inPlaceMergeSort(int[])
+     */
+    public static void inPlaceMergeSort(int[] arr, OpCounter counter) {
+        int n = arr.length;
+        for (int lo = 0; lo < n; lo += INSERTION_BLOCK) {
+            MergeSortAnalyzer.insertionSort(arr, lo, Math.min(lo + INSERTION_BLOCK, n) - 1, counter);
+        }
+        if (n <= INSERTION_BLOCK) {
+            return;
+        }
+
+        int[] buf = new int[bufferSize(n)];
+        counter.allocate(buf.length, Integer.BYTES);
+
+        for (int width = INSERTION_BLOCK; width < n; width *= 2) {
+            for (int lo = 0; lo + width < n; lo += 2 * width) {
+                merge(arr, lo, lo + width, Math.min(lo + 2 * width, n), buf, counter);
+            }
+        }
+    }
+
+    /**
+     * Merges the sorted runs {@code arr[lo, mid)} and {@code arr[mid, hi)}.
+     * Elements already in their final place at either end are skipped
+     * first, so runs that are already in order cost one comparison.
+     */
+    private static void merge(int[] arr, int lo, int mid, int hi, int[] buf, OpCounter counter) {
+        counter.compare(1);
+        if (arr[mid - 1] <= arr[mid]) {
+            return;
+        }
+        // Left elements not above the first right one, and right elements
+        // not below the last left one, stay where they are
+        lo = upperBound(arr, lo, mid, arr[mid], counter);
+        hi = lowerBound(arr, mid, hi, arr[mid - 1], counter);
+        mergeRotating(arr, lo, mid, hi, buf, counter);
+    }
+
+    /**
+     * Merges {@code arr[lo, mid)} and {@code arr[mid, hi)}, splitting the
+     * merge by rotation until the shorter run fits in {@code buf}.
+     */
+    private static void mergeRotating(int[] arr, int lo, int mid, int hi, int[] buf, OpCounter counter) {
+        while (lo < mid && mid < hi) {
+            int left = mid - lo;
+            int right = hi - mid;
+            if (Math.min(left, right) <= buf.length) {
+                mergeBuffered(arr, lo, mid, hi, buf, counter);
+                return;
+            }
+
+            // Split the longer run in the middle; equal keys stay left of
+            // their equals from the right run, which keeps the sort stable
+            int leftCut;
+            int rightCut;
+            if (left >= right) {
+                leftCut = lo + left / 2;
+                rightCut = lowerBound(arr, mid, hi, arr[leftCut], counter);
+            } else {
+                rightCut = mid + right / 2;
+                leftCut = upperBound(arr, lo, mid, arr[rightCut], counter);
+            }
+            rotate(arr, leftCut, mid, rightCut, buf, counter);
+            int newMid = leftCut + (rightCut - mid);
+
+            // Recurse into the smaller half and loop on the larger one,
+            // which bounds the recursion depth by log2(n)
+            if (newMid - lo < hi - newMid) {
+                mergeRotating(arr, lo, leftCut, newMid, buf, counter);
+                lo = newMid;
+                mid = rightCut;
+            } else {
+                mergeRotating(arr, newMid, rightCut, hi, buf, counter);
+                hi = newMid;
+                mid = leftCut;
+            }
+        }
+    }
+
+    /**
+     * Merges {@code arr[lo, mid)} and {@code arr[mid, hi)} by moving the
+     * shorter run into {@code buf}, which must hold it, and merging from the
+     * end it was taken from.
+     */
+    private static void mergeBuffered(int[] arr, int lo, int mid, int hi, int[] buf, OpCounter counter) {
+        int left = mid - lo;
+        int right = hi - mid;
+
+        if (left <= right) {
+            System.arraycopy(arr, lo, buf, 0, left);
+            int i = 0;
+            int j = mid;
+            int k = lo;
+            while (i < left && j < hi) {
+                if (arr[j] < buf[i]) {
+                    arr[k++] = arr[j++];
+                } else {
+                    arr[k++] = buf[i++];
+                }
+            }
+            int merged = k - lo;
+            System.arraycopy(buf, i, arr, k, left - i);
+            counter.compare(merged);
+            counter.move(left + merged + (left - i));
+        } else {
+            System.arraycopy(arr, mid, buf, 0, right);
+            int i = mid - 1;
+            int j = right - 1;
+            int k = hi - 1;
+            while (i >= lo && j >= 0) {
+                if (arr[i] > buf[j]) {
+                    arr[k--] = arr[i--];
+                } else {
+                    arr[k--] = buf[j--];
+                }
+            }
+            int merged = hi - 1 - k;
+            System.arraycopy(buf, 0, arr, lo, j + 1);
+            counter.compare(merged);
+            counter.move(right + merged + (j + 1));
+        }
+    }
+
+    /**
+     * Exchanges the adjacent blocks {@code arr[lo, mid)} and
+     * {@code arr[mid, hi)}, through {@code buf} if the shorter block fits,
+     * otherwise by three reversals.
+     */
+    private static void rotate(int[] arr, int lo, int mid, int hi, int[] buf, OpCounter counter) {
+        int left = mid - lo;
+        int right = hi - mid;
+        if (left == 0 || right == 0) {
+            return;
+        }
+
+        if (left <= right && left <= buf.length) {
+            System.arraycopy(arr, lo, buf, 0, left);
+            System.arraycopy(arr, mid, arr, lo, right);
+            System.arraycopy(buf, 0, arr, lo + right, left);
+            counter.move(2L * left + right);
+        } else if (right <= buf.length) {
+            System.arraycopy(arr, mid, buf, 0, right);
+            System.arraycopy(arr, lo, arr, lo + right, left);
+            System.arraycopy(buf, 0, arr, lo, right);
+            counter.move(2L * right + left);
+        } else {
+            reverse(arr, lo, mid);
+            reverse(arr, mid, hi);
+            reverse(arr, lo, hi);
+            counter.move(3L * (left / 2 + right / 2 + (left + right) / 2));
+        }
+    }
+
+    private static void reverse(int[] arr, int lo, int hi) {
+        for (int i = lo, j = hi - 1; i < j; i++, j--) {
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+    }
+
+    /**
+     * @return the first index in {@code [lo, hi)} whose element is not
+     *         below {@code key}, or {@code hi}
+     */
+    private static int lowerBound(int[] arr, int lo, int hi, int key, OpCounter counter) {
+        int probes = 0;
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            probes++;
+            if (arr[m] < key) {
+                lo = m + 1;
+            } else {
+                hi = m;
+            }
+        }
+        counter.compare(probes);
+        return lo;
+    }
+
+    /**
+     * @return the first index in {@code [lo, hi)} whose element is above
+     *         {@code key}, or {@code hi}
+     */
+    private static int upperBound(int[] arr, int lo, int hi, int key, OpCounter counter) {
+        int probes = 0;
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            probes++;
+            if (arr[m] <= key) {
+                lo = m + 1;
+            } else {
+                hi = m;
+            }
+        }
+        counter.compare(probes);
+        return lo;
+    }
+}
@@ -0,0 +1,265 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Persistent on-disk cache of generated input arrays.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Keys every array by distribution, size, value range, seed and
+ *         input index, so a key always denotes the same array for the same
+ *         {@link DataGenerator} seed</li>
+ *     <li>Stores each array once, in a binary file of a {@value #HEADER_INTS}-int
+ *         header followed by the values in {@link ExternalMergeSort#BYTE_ORDER},
+ *         written to a temporary file and renamed into place so concurrent
+ *         experiments never see a partial entry</li>
+ *     <li>Loads entries by memory-mapping them, either copied into an
+ *         {@code int[]} one window of {@link ExternalMergeSort#WINDOW_INTS}
+ *         ints at a time, or as a read-only {@link IntBuffer} view of the
+ *         whole entry; neither allocates an I/O buffer</li>
+ *     <li>Keeps the directory below a size limit by deleting the least
+ *         recently used entries; every hit refreshes the entry's
+ *         modification time, which serves as its last-use time</li>
+ * </ul>
+ * Entries are only reused across invocations when the seed is fixed, for
+ * example with {@code ExperimentRunner --seed=S}.
+ */
+public final class InputCorpus {
+
+    /** First header int of every entry ("SRTC"). */
+    private static final int MAGIC = 0x53525443;
+
+    /** Format version, the second header int. */
+    private static final int VERSION = 1;
+
+    /** Header: magic, version, length, reserved. */
+    static final int HEADER_INTS = 4;
+
+    private static final String SUFFIX = ".ints";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory the directory holding the entries; created if needed
+     * @param maxBytes  the size above which least recently used entries are
+     *                  evicted
+     * @throws IllegalArgumentException if {@code maxBytes} is not positive
+     * @throws IOException              if the directory cannot be created
+     */
+    public InputCorpus(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Corpus size limit must be positive: " + maxBytes);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the directory holding the entries
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Returns the array for {@code key}, loading it from the corpus if it is
+     * there, and otherwise generating it with {@code generator} and storing
+     * it.
+     *
+     * @param key       the key of the array
+     * @param generator generates the array on a miss
+     * @return a new array holding the entry
+     * @throws UncheckedIOException if the corpus cannot be read or written
+     */
+    public int[] get(Key key, Supplier<int[]> generator) {
+        Path file = file(key);
+        try {
+            int[] cached = read(file, key.n());
+            if (cached != null) {
+                return cached;
+            }
+            int[] values = generator.get();
+            store(file, values);
+            return values;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a read-only view of the entry for {@code key}, generating and
+     * storing it first on a miss. The view maps the file directly, so it
+     * costs no heap and stays valid after the entry is evicted.
+     *
+     * @param key       the key of the array
+     * @param generator generates the array on a miss
+     * @return a read-only view of the entry's values
+     * @throws IllegalArgumentException if the entry is too large to map in
+     *                                  one piece (2 GiB)
+     * @throws UncheckedIOException     if the corpus cannot be read or written
+     */
+    public IntBuffer view(Key key, Supplier<int[]> generator) {
+        if ((long) key.n() * Integer.BYTES > Integer.MAX_VALUE - HEADER_INTS * Integer.BYTES) {
+            throw new IllegalArgumentException("Entry too large to map as one view: n = " + key.n());
+        }
+        Path file = file(key);
+        try {
+            if (!Files.exists(file)) {
+                store(file, generator.get());
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                checkHeader(channel, file, key.n());
+                touch(file);
+                return map(channel, HEADER_INTS, key.n());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads an entry, or returns {@code null} if it does not exist.
+     */
+    private int[] read(Path file, int n) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            checkHeader(channel, file, n);
+            int[] values = new int[n];
+            // Windows keep entries over 2 GiB readable and bound the mapped range
+            for (int from = 0; from < n; from += ExternalMergeSort.WINDOW_INTS) {
+                int count = Math.min(ExternalMergeSort.WINDOW_INTS, n - from);
+                map(channel, HEADER_INTS + (long) from, count).get(values, from, count);
+            }
+            touch(file);
+            return values;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes an entry to a temporary file, renames it into place and then
+     * evicts entries until the corpus fits its size limit again.
+     */
+    private void store(Path file, int[] values) throws IOException {
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                ExternalMergeSort.writeInts(channel, 0, new int[] {MAGIC, VERSION, values.length, 0},
+                        HEADER_INTS);
+                ExternalMergeSort.writeInts(channel, HEADER_INTS, values, values.length);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        evict(file);
+    }
+
+    /**
+     * Deletes the least recently used entries, never {@code keep}, until the
+     * total size of the corpus is within the limit.
+     */
+    private synchronized void evict(Path keep) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path entry : files) {
+                entries.add(entry);
+                total += sizeOf(entry);
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(InputCorpus::lastUsed));
+        for (Path entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (!entry.equals(keep)) {
+                total -= sizeOf(entry);
+                Files.deleteIfExists(entry);
+            }
+        }
+    }
+
+    private static void checkHeader(FileChannel channel, Path file, int n) throws IOException {
+        int[] header = new int[HEADER_INTS];
+        if (channel.size() != (long) (HEADER_INTS + n) * Integer.BYTES) {
+            throw new IOException("Corpus entry has the wrong size: " + file);
+        }
+        map(channel, 0, HEADER_INTS).get(header);
+        if (header[0] != MAGIC || header[1] != VERSION || header[2] != n) {
+            throw new IOException("Not a corpus entry for n = " + n + ": " + file);
+        }
+    }
+
+    /**
+     * Maps {@code count} ints of an entry, starting at int {@code start} of
+     * the file, read-only.
+     */
+    private static IntBuffer map(FileChannel channel, long start, int count) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start * Integer.BYTES, (long) count * Integer.BYTES)
+                .order(ExternalMergeSort.BYTE_ORDER)
+                .asIntBuffer();
+    }
+
+    /** Marks an entry as just used. */
+    private static void touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Evicted by another experiment in the meantime; the data is already read
+        }
+    }
+
+    private static FileTime lastUsed(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path file(Key key) {
+        return directory.resolve(key.distribution() + "-n" + key.n() + "-max" + key.maxValue()
+                + "-seed" + Long.toHexString(key.seed()) + "-" + key.index() + SUFFIX);
+    }
+
+    /**
+     * Identifies one generated array.
+     *
+     * @param distribution the generator, for example {@code "random"}; used
+     *                     in the file name
+     * @param n            the array size
+     * @param maxValue     the upper bound (exclusive) of the values
+     * @param seed         the {@link DataGenerator} seed
+     * @param index        the input index within the experiment
+     */
+    public record Key(String distribution, int n, int maxValue, long seed, int index) {
+    }
+}
@@ -0,0 +1,153 @@
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * JVM activity during timed sorts, as reported by the platform MXBeans:
+ * heap bytes allocated by the measuring thread, garbage collections and
+ * their accumulated time, and JIT compilation time.
+ * <p>
+ * Allocation is counted for the current thread only, so work the parallel
+ * engine hands to other threads is not included. Collections and
+ * compilation are process-wide, so when several sorts are timed at once
+ * (see {@link ExperimentScheduler}) each is charged for all of them.
+ * Times are in whole milliseconds, the resolution of the MXBeans.
+ */
+public final class JvmStats {
+
+    /** Statistics of no runs. */
+    public static final JvmStats ZERO = new JvmStats(0, 0, 0, 0, 0);
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static final List<GarbageCollectorMXBean> COLLECTORS =
+            ManagementFactory.getGarbageCollectorMXBeans();
+    private static final CompilationMXBean COMPILER = compilerBean();
+
+    private final long allocatedBytes;
+    private final long gcCount;
+    private final long gcMillis;
+    private final long jitMillis;
+    private final int runs;
+
+    /**
+     * @param allocatedBytes the heap bytes allocated
+     * @param gcCount        the number of garbage collections
+     * @param gcMillis       the accumulated collection time in milliseconds
+     * @param jitMillis      the JIT compilation time in milliseconds
+     * @param runs           the number of timed sorts these figures cover
+     */
+    public JvmStats(long allocatedBytes, long gcCount, long gcMillis, long jitMillis, int runs) {
+        this.allocatedBytes = allocatedBytes;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+        this.jitMillis = jitMillis;
+        this.runs = runs;
+    }
+
+    /**
+     * Reads the current counters. Pass the result to {@link #since} after
+     * the code to measure has run.
+     *
+     * @return the counters so far, covering no runs
+     */
+    public static JvmStats snapshot() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        long jit = COMPILER != null ? COMPILER.getTotalCompilationTime() : 0;
+        // Last, so the snapshot's own allocations are not counted
+        long allocated = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+        return new JvmStats(allocated, count, millis, jit, 0);
+    }
+
+    /**
+     * Returns the activity since {@code start} as one run.
+     *
+     * @param start a snapshot taken before the measured code, on the same thread
+     * @return the difference between the current counters and {@code start}
+     */
+    public static JvmStats since(JvmStats start) {
+        long allocated = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+        JvmStats now = snapshot();
+        return new JvmStats(allocated - start.allocatedBytes, now.gcCount - start.gcCount,
+                now.gcMillis - start.gcMillis, now.jitMillis - start.jitMillis, 1);
+    }
+
+    /**
+     * @return whether the JVM reports per-thread allocation; if not,
+     *         {@link #allocatedBytes()} is always zero
+     */
+    public static boolean isAllocationSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * @return the heap bytes allocated by the measuring thread over all runs
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the heap bytes allocated per run
+     */
+    public long allocatedBytesPerRun() {
+        return runs == 0 ? 0 : allocatedBytes / runs;
+    }
+
+    /**
+     * @return the number of garbage collections over all runs
+     */
+    public long gcCount() {
+        return gcCount;
+    }
+
+    /**
+     * @return the accumulated garbage collection time over all runs, in milliseconds
+     */
+    public long gcMillis() {
+        return gcMillis;
+    }
+
+    /**
+     * @return the JIT compilation time over all runs, in milliseconds
+     */
+    public long jitMillis() {
+        return jitMillis;
+    }
+
+    /**
+     * @return the number of timed sorts these figures cover
+     */
+    public int runs() {
+        return runs;
+    }
+
+    /**
+     * @param other the statistics to add
+     * @return the element-wise sum of this and {@code other}, covering the
+     *         runs of both
+     */
+    public JvmStats plus(JvmStats other) {
+        return new JvmStats(allocatedBytes + other.allocatedBytes, gcCount + other.gcCount,
+                gcMillis + other.gcMillis, jitMillis + other.jitMillis, runs + other.runs);
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    private static CompilationMXBean compilerBean() {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        return compiler != null && compiler.isCompilationTimeMonitoringSupported() ? compiler : null;
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.List;
+
 /**
  * Analyzer class for the Merge Sort algorithm.
  * <p>
@@ -8,10 +10,25 @@
  *     <li>Reports best, average, and worst-case behavior</li>
  * </ul>
  * It uses a classic array-based Merge Sort implementation with temporary
- * left/right subarrays for the merge step.
+ * left/right subarrays for the merge step. An allocation-free variant
+ * ({@link #bufferedMergeSort(int[])}) is also provided; it reuses a single
+ * per-thread scratch buffer and alternates source/destination roles at each
+ * level of the recursion instead of copying into {@code L} and {@code R}.
+ * A non-recursive bottom-up variant ({@link #bottomUpMergeSort(int[])})
+ * sorts small blocks by insertion sort and then merges them iteratively.
+ * Results are also compared against {@link ParallelMergeSort}.
  */
 public class MergeSortAnalyzer {
 
+    /**
+     * Per-thread scratch buffer reused by {@link #bufferedMergeSort(int[])}.
+     * It only ever grows, so repeated runs at the same size allocate nothing.
+     */
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    /** Width of the blocks that {@link #bottomUpMergeSort(int[])} insertion-sorts first. */
+    private static final int INSERTION_BLOCK = 32;
+
     /**
      * Executes an empirical analysis of Merge Sort for the given array size {@code n}.
      * <p>
@@ -30,74 +47,54 @@ public class MergeSortAnalyzer {
      *                        ({@code maxValue = n * rangeMultiplier})
      */
     public static void analyze(int n, int runs, int rangeMultiplier) {
-        int maxValue = n * rangeMultiplier;
-
-        long totalOps = 0;
-        long totalTime = 0;
-
-        // Average case: runs on random unique arrays
-        for (int i = 0; i < runs; i++) {
-            int[] arr = DataGenerator.generateUniqueRandomArray(n, maxValue);
+        List<AnalysisResult> results = SortHarness.analyze(
+                SortRegistry.get(List.of("merge", "merge-buffered", "merge-bottomup", "merge-network", "merge-parallel")),
+                n, runs, rangeMultiplier);
 
-            long start = System.nanoTime();
-            long ops = mergeSort(arr, 0, arr.length - 1);
-            long end = System.nanoTime();
-
-            totalOps += ops;
-            totalTime += (end - start);
+        AnalysisResult sequential = results.get(0);
+        for (AnalysisResult result : results) {
+            SortHarness.print(result);
+            if (result != sequential) {
+                SortHarness.printSpeedup(result, sequential);
+            }
         }
+    }
 
-        long avgOps = totalOps / runs;
-        long avgTime = totalTime / runs;
-
-        // Base array for best- and worst-case construction
-        int[] base = DataGenerator.generateUniqueRandomArray(n, maxValue);
-
-        // Best case: sorted
-        int[] best = DataGenerator.createBestCase(base);
-        long bestStart = System.nanoTime();
-        long bestOps = mergeSort(best, 0, best.length - 1);
-        long bestEnd = System.nanoTime();
-
-        // Worst case: reverse-sorted
-        int[] worst = DataGenerator.createWorstCase(base);
-        long worstStart = System.nanoTime();
-        long worstOps = mergeSort(worst, 0, worst.length - 1);
-        long worstEnd = System.nanoTime();
-
-        System.out.println("Merge Sort (n = " + n + "):");
-        System.out.printf("  Average case: ops = %d, time = %s%n",
-                avgOps, formatTime(avgTime));
-        System.out.printf("  Best case   : ops = %d, time = %s%n",
-                bestOps, formatTime(bestEnd - bestStart));
-        System.out.printf("  Worst case  : ops = %d, time = %s%n",
-                worstOps, formatTime(worstEnd - worstStart));
+    /**
+     * Sorts the whole of {@code arr} with the classic recursive Merge Sort,
+     * reporting its work to {@code counter}.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void mergeSort(int[] arr, OpCounter counter) {
+        if (arr.length > 0) {
+            mergeSort(arr, 0, arr.length - 1, counter);
+        }
     }
 
     /**
      * Recursive Merge Sort driver.
      * <p>
      * Sorts the portion of {@code arr} in the index range {@code [l, r]}
-     * and accumulates a count of basic operations performed.
+     * and reports the basic operations performed to {@code counter}.
      *
-     * @param arr the array to sort
-     * @param l   the left index (inclusive)
-     * @param r   the right index (inclusive)
-     * @return the number of basic operations performed
+     * @param arr     the array to sort
+     * @param l       the left index (inclusive)
+     * @param r       the right index (inclusive)
+     * @param counter receives the operations performed
      */
-    private static long mergeSort(int[] arr, int l, int r) {
+    private static void mergeSort(int[] arr, int l, int r, OpCounter counter) {
         if (l >= r) {
-            return 0;
+            return;
         }
 
-        long ops = 0;
         int m = l + (r - l) / 2;
 
-        ops += mergeSort(arr, l, m);
-        ops += mergeSort(arr, m + 1, r);
-        ops += merge(arr, l, m, r);
-
-        return ops;
+        mergeSort(arr, l, m, counter);
+        mergeSort(arr, m + 1, r, counter);
+        merge(arr, l, m, r, counter);
     }
 
     /**
@@ -107,31 +104,33 @@ public class MergeSortAnalyzer {
      *     <li>Right subarray: {@code arr[m+1..r]}</li>
      * </ul>
      * This method uses temporary arrays {@code L} and {@code R} and counts
-     * both comparisons and assignments as basic operations.
+     * both comparisons and assignments as basic operations: one assignment
+     * per element copied into {@code L} and {@code R}, and one comparison
+     * (merge comparison or loop-condition comparison) plus one assignment per
+     * element written back. The counts follow from the range sizes and are
+     * reported once per merge.
      *
-     * @param arr the original array containing two sorted halves
-     * @param l   left index of the first subarray
-     * @param m   ending index of the first subarray
-     * @param r   ending index of the second subarray
-     * @return the number of basic operations performed during the merge
+     * @param arr     the original array containing two sorted halves
+     * @param l       left index of the first subarray
+     * @param m       ending index of the first subarray
+     * @param r       ending index of the second subarray
+     * @param counter receives the operations performed during the merge
      */
-    private static long merge(int[] arr, int l, int m, int r) {
-        long ops = 0;
-
+    private static void merge(int[] arr, int l, int m, int r, OpCounter counter) {
         int n1 = m - l + 1;
         int n2 = r - m;
 
         int[] L = new int[n1];
         int[] R = new int[n2];
+        counter.allocate(n1, Integer.BYTES);
+        counter.allocate(n2, Integer.BYTES);
 
         // Copy into L and R
         for (int i = 0; i < n1; i++) {
             L[i] = arr[l + i];
-            ops++;
         }
         for (int j = 0; j < n2; j++) {
             R[j] = arr[m + 1 + j];
-            ops++;
         }
 
         int i = 0;
@@ -140,7 +139,6 @@ public class MergeSortAnalyzer {
 
         // Merge the two temporary arrays back into arr
         while (i < n1 && j < n2) {
-            ops++; // comparison
             if (L[i] <= R[j]) {
                 arr[k] = L[i];
                 i++;
@@ -148,57 +146,267 @@ public class MergeSortAnalyzer {
                 arr[k] = R[j];
                 j++;
             }
-            ops++; // assignment
             k++;
         }
 
         // Copy any remaining elements of L[]
         while (i < n1) {
-            ops++; // loop condition comparison
             arr[k] = L[i];
-            ops++; // assignment
             i++;
             k++;
         }
 
         // Copy any remaining elements of R[]
         while (j < n2) {
-            ops++; // loop condition comparison
             arr[k] = R[j];
-            ops++; // assignment
             j++;
             k++;
         }
 
-        return ops;
+        counter.move(n1 + n2);    // copies into L and R
+        counter.compare(n1 + n2); // one comparison per element written back
+        counter.move(n1 + n2);    // one assignment per element written back
     }
 
     /**
-     * Convenience method used by the Part 2 demo to run Merge Sort
-     * on a given array and return the operation count.
+     * Allocation-free Merge Sort.
+     * <p>
+     * Copies {@code arr} once into the calling thread's scratch buffer and
+     * then recursively sorts with the two arrays swapping roles at each level
+     * (the "ping-pong" scheme), so the final merge lands directly in
+     * {@code arr} and no per-merge temporaries are created.
+     * <p>
+     * Operations are counted as one per element copied into the scratch
+     * buffer, plus one per comparison and one per assignment during merging.
+     * Unlike {@link #merge(int[], int, int, int, OpCounter)}, no copy into
+     * {@code L} and {@code R} is performed, so the count is lower by roughly
+     * {@code n log n}.
      *
      * @param arr the array to sort in-place
      * @return the number of basic operations performed
      */
-    public static long demoMergeSort(int[] arr) {
-        if (arr.length == 0) {
-            return 0;
+    public static long bufferedMergeSort(int[] arr) {
+        DetailedCounter counter = new DetailedCounter();
+        bufferedMergeSort(arr, counter);
+        return counter.ops();
+    }
+
+    /**
+     * Allocation-free Merge Sort, reporting its work to {@code counter}.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @see #bufferedMergeSort(int[])
+     */
+    public static void bufferedMergeSort(int[] arr, OpCounter counter) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
         }
-        return mergeSort(arr, 0, arr.length - 1);
+
+        int[] buf = scratch(n, counter);
+
+        System.arraycopy(arr, 0, buf, 0, n);
+        counter.move(n); // one assignment per element copied
+
+        sortInto(buf, arr, 0, n - 1, counter);
     }
 
     /**
-     * Utility to convert a time duration in nanoseconds to a human-readable string.
+     * Returns the calling thread's scratch buffer, growing it to at least
+     * {@code n} elements if necessary.
      *
-     * @param nanos the time in nanoseconds
-     * @return a formatted string with appropriate units (ns, µs, ms, or s)
+     * @param n       the required capacity
+     * @param counter receives the allocation, if one is made
+     * @return a buffer of at least {@code n} elements
      */
-    private static String formatTime(long nanos) {
-        if (nanos < 1_000) return nanos + " ns";
-        if (nanos < 1_000_000) return String.format("%.3f µs", nanos / 1_000.0);
-        if (nanos < 1_000_000_000) return String.format("%.3f ms", nanos / 1_000_000.0);
-        return String.format("%.3f s", nanos / 1_000_000_000.0);
+    private static int[] scratch(int n, OpCounter counter) {
+        int[] buf = SCRATCH.get();
+        if (buf.length < n) {
+            buf = new int[n];
+            counter.allocate(n, Integer.BYTES);
+            SCRATCH.set(buf);
+        }
+        return buf;
     }
-}
 
+    /**
+     * Sorts {@code src[l..r]} into {@code dst[l..r]}. Both arrays must hold
+     * the same elements in that range on entry; {@code src} is used as
+     * scratch space and is left in an unspecified order.
+     *
+     * @param src     the array to read from (and to use as scratch)
+     * @param dst     the array receiving the sorted range
+     * @param l       the left index (inclusive)
+     * @param r       the right index (inclusive)
+     * @param counter receives the operations performed
+     */
+    static void sortInto(int[] src, int[] dst, int l, int r, OpCounter counter) {
+        if (l >= r) {
+            return;
+        }
+
+        int m = l + (r - l) / 2;
 
+        // Sort both halves into src so they can be merged into dst
+        sortInto(dst, src, l, m, counter);
+        sortInto(dst, src, m + 1, r, counter);
+        mergeInto(src, dst, l, m, r, counter);
+    }
+
+    /**
+     * Merges the sorted runs {@code src[l..m]} and {@code src[m+1..r]} into
+     * {@code dst[l..r]}, counting one comparison (merge or loop-condition)
+     * and one assignment per element written.
+     *
+     * @param src     the array holding the two sorted runs
+     * @param dst     the array receiving the merged result
+     * @param l       left index of the first run
+     * @param m       ending index of the first run
+     * @param r       ending index of the second run
+     * @param counter receives the operations performed during the merge
+     */
+    static void mergeInto(int[] src, int[] dst, int l, int m, int r, OpCounter counter) {
+        int i = l;
+        int j = m + 1;
+        int k = l;
+
+        while (i <= m && j <= r) {
+            if (src[i] <= src[j]) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+
+        while (i <= m) {
+            dst[k++] = src[i++];
+        }
+
+        while (j <= r) {
+            dst[k++] = src[j++];
+        }
+
+        counter.compare(r - l + 1);
+        counter.move(r - l + 1);
+    }
+
+    /**
+     * Non-recursive bottom-up Merge Sort.
+     * <p>
+     * The array is first cut into blocks of {@value #INSERTION_BLOCK} elements,
+     * each sorted by insertion sort. Sorted runs of width 32, 64, 128, ... are
+     * then merged pairwise, alternating between {@code arr} and the
+     * calling thread's scratch buffer, so there is no recursion and no
+     * per-merge allocation. When the last element of a left run is not
+     * greater than the first element of its right run the pair is already
+     * in order and is copied instead of merged.
+     * <p>
+     * Operations are counted as one per comparison and one per assignment
+     * (insertion-sort shifts, merge output and block copies), the same
+     * conventions as {@link #bufferedMergeSort(int[])}.
+     *
+     * @param arr the array to sort in-place
+     * @return the number of basic operations performed
+     */
+    public static long bottomUpMergeSort(int[] arr) {
+        DetailedCounter counter = new DetailedCounter();
+        bottomUpMergeSort(arr, counter);
+        return counter.ops();
+    }
+
+    /**
+     * Non-recursive bottom-up Merge Sort, reporting its work to
+     * {@code counter}.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @see #bottomUpMergeSort(int[])
+     */
+    public static void bottomUpMergeSort(int[] arr, OpCounter counter) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+
+        // Sort fixed-width blocks in place
+        for (int lo = 0; lo < n; lo += INSERTION_BLOCK) {
+            insertionSort(arr, lo, Math.min(lo + INSERTION_BLOCK, n) - 1, counter);
+        }
+        if (n <= INSERTION_BLOCK) {
+            return;
+        }
+
+        int[] src = arr;
+        int[] dst = scratch(n, counter);
+
+        for (int width = INSERTION_BLOCK; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int m = Math.min(lo + width, n) - 1;
+                int r = Math.min(lo + 2 * width, n) - 1;
+
+                if (m < r) {
+                    counter.compare(1); // arr[m] <= arr[m+1]
+                }
+                if (m >= r || src[m] <= src[m + 1]) {
+                    // Lone trailing run, or the pair is already in order
+                    System.arraycopy(src, lo, dst, lo, r - lo + 1);
+                    counter.move(r - lo + 1);
+                } else {
+                    mergeInto(src, dst, lo, m, r, counter);
+                }
+            }
+
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        // After an odd number of levels the result is in the buffer
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            counter.move(n);
+        }
+    }
+
+    /**
+     * Sorts {@code arr[l..r]} by insertion sort, counting one operation per
+     * comparison and one per assignment.
+     *
+     * @param arr     the array containing the range
+     * @param l       the left index (inclusive)
+     * @param r       the right index (inclusive)
+     * @param counter receives the operations performed
+     */
+    static void insertionSort(int[] arr, int l, int r, OpCounter counter) {
+        for (int i = l + 1; i <= r; i++) {
+            int key = arr[i];
+            int j = i - 1;
+
+            while (j >= l && arr[j] > key) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = key;
+
+            int shifted = i - 1 - j;
+            counter.compare(j >= l ? shifted + 1 : shifted); // the last one failed
+            counter.move(shifted + 1);                       // shifts plus the insertion
+        }
+    }
+
+    /**
+     * Convenience method used by the Part 2 demo to run Merge Sort
+     * on a given array and return the operation count.
+     *
+     * @param arr the array to sort in-place
+     * @return the number of basic operations performed
+     */
+    public static long demoMergeSort(int[] arr) {
+        DetailedCounter counter = new DetailedCounter();
+        mergeSort(arr, counter);
+        return counter.ops();
+    }
+}
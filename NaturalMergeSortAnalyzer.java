@@ -0,0 +1,555 @@
+import java.util.List;
+
+/**
+ * Analyzer class for an adaptive natural Merge Sort.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Detects maximal ascending and strictly descending runs already
+ *         present in the input, reversing descending runs in place</li>
+ *     <li>Extends short runs to a minimum length with binary insertion sort</li>
+ *     <li>Keeps pending runs on a stack whose lengths are kept balanced
+ *         (each run longer than the sum of the next two), so merges stay
+ *         close to equal-sized</li>
+ *     <li>Merges with galloping: after several consecutive elements come
+ *         from the same run, whole blocks are located by exponential search
+ *         and copied at once</li>
+ * </ul>
+ * Sorted and reverse-sorted inputs form a single run and therefore cost O(n);
+ * random inputs cost O(n log n) like {@link MergeSortAnalyzer}.
+ */
+public class NaturalMergeSortAnalyzer {
+
+    /** Arrays shorter than this are sorted with binary insertion sort only. */
+    private static final int MIN_MERGE = 32;
+
+    /** Consecutive wins from one run before switching to galloping mode. */
+    private static final int MIN_GALLOP = 7;
+
+    /** Maximum number of pending runs; the balance invariant keeps it small. */
+    private static final int MAX_STACK = 64;
+
+    /** Per-thread merge buffer; it only ever grows. */
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    /**
+     * Executes an empirical analysis of natural Merge Sort for the given array
+     * size {@code n}, side by side with Merge Sort on the same inputs.
+     * <p>
+     * It prints the number of operations and wall-clock time for the average,
+     * best and worst cases, and the speedup over Merge Sort.
+     *
+     * @param n               the array size to sort
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     */
+    public static void analyze(int n, int runs, int rangeMultiplier) {
+        List<AnalysisResult> results = SortHarness.analyze(
+                SortRegistry.get(List.of("merge", "natural")), n, runs, rangeMultiplier);
+
+        SortHarness.print(results.get(0));
+        SortHarness.print(results.get(1));
+        SortHarness.printSpeedup(results.get(1), results.get(0));
+    }
+
+    /**
+     * Sorts {@code arr} with adaptive natural Merge Sort while counting basic
+     * operations.
+     * <p>
+     * Following the conventions of {@link MergeSortAnalyzer}, one operation
+     * is counted per comparison (including every probe of a galloping or
+     * binary search) and one per element assignment (including block copies
+     * and copies into the merge buffer). Reversing a descending run counts
+     * three assignments per swap, as in {@link SelectionSortAnalyzer}.
+     *
+     * @param arr the array to sort in-place
+     * @return the number of basic operations performed
+     */
+    public static long naturalMergeSort(int[] arr) {
+        DetailedCounter counter = new DetailedCounter();
+        naturalMergeSort(arr, counter);
+        return counter.ops();
+    }
+
+    /**
+     * Sorts {@code arr} with adaptive natural Merge Sort, reporting its work
+     * to {@code counter}.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @see #naturalMergeSort(int[])
+     */
+    public static void naturalMergeSort(int[] arr, OpCounter counter) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+
+        Sorter sorter = new Sorter(arr, counter);
+
+        // Small arrays: a single run extended by binary insertion sort
+        if (n < MIN_MERGE) {
+            int initRunLen = sorter.countRunAndMakeAscending(0, n);
+            sorter.binarySort(0, n, initRunLen);
+            return;
+        }
+
+        int minRun = minRunLength(n);
+        int lo = 0;
+        int remaining = n;
+        do {
+            int runLen = sorter.countRunAndMakeAscending(lo, lo + remaining);
+
+            // Extend short runs to min(minRun, remaining)
+            if (runLen < minRun) {
+                int force = Math.min(remaining, minRun);
+                sorter.binarySort(lo, lo + force, lo + runLen);
+                runLen = force;
+            }
+
+            sorter.pushRun(lo, runLen);
+            sorter.mergeCollapse();
+
+            lo += runLen;
+            remaining -= runLen;
+        } while (remaining != 0);
+
+        sorter.mergeForceCollapse();
+    }
+
+    /**
+     * Returns the minimum run length: {@code n} shifted right until it is
+     * below {@link #MIN_MERGE}, plus one if any bit shifted off was set. This
+     * makes {@code n / minRun} equal to, or slightly less than, a power of two.
+     */
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    /**
+     * State of one sort: the array, the run stack, the merge buffer and the
+     * counter receiving its operations.
+     */
+    private static final class Sorter {
+        private final int[] a;
+        private final int[] runBase = new int[MAX_STACK];
+        private final int[] runLen = new int[MAX_STACK];
+        private int stackSize;
+        private final OpCounter counter;
+        private int[] tmp;
+
+        Sorter(int[] a, OpCounter counter) {
+            this.a = a;
+            this.counter = counter;
+            this.tmp = SCRATCH.get();
+        }
+
+        /**
+         * Returns the length of the run starting at {@code lo}, reversing it
+         * first if it is strictly descending.
+         *
+         * @param lo index of the first element of the run
+         * @param hi index after the last element that may belong to the run
+         * @return the length of the run
+         */
+        int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+
+            if (a[runHi++] < a[lo]) {
+                // Strictly descending, so reversing keeps equal elements in order
+                while (runHi < hi && a[runHi] < a[runHi - 1]) {
+                    runHi++;
+                }
+                reverseRange(lo, runHi);
+            } else {
+                while (runHi < hi && a[runHi] >= a[runHi - 1]) {
+                    runHi++;
+                }
+            }
+
+            // One comparison per pair in the run, plus the one that ended it
+            counter.compare(runHi < hi ? runHi - lo : runHi - lo - 1);
+            return runHi - lo;
+        }
+
+        private void reverseRange(int lo, int hi) {
+            counter.move(3L * ((hi - lo) / 2)); // three assignments per swap
+            hi--;
+            while (lo < hi) {
+                int temp = a[lo];
+                a[lo++] = a[hi];
+                a[hi--] = temp;
+            }
+        }
+
+        /**
+         * Sorts {@code a[lo..hi)} by binary insertion, given that
+         * {@code a[lo..start)} is already sorted.
+         */
+        void binarySort(int lo, int hi, int start) {
+            if (start == lo) {
+                start++;
+            }
+            for (; start < hi; start++) {
+                int pivot = a[start];
+
+                // Insert after any equal elements to keep the sort stable
+                int left = lo;
+                int right = start;
+                int probes = 0;
+                while (left < right) {
+                    int mid = (left + right) >>> 1;
+                    probes++;
+                    if (pivot < a[mid]) {
+                        right = mid;
+                    } else {
+                        left = mid + 1;
+                    }
+                }
+
+                int moved = start - left;
+                System.arraycopy(a, left, a, left + 1, moved);
+                a[left] = pivot;
+                counter.compare(probes);
+                counter.move(moved + 1); // shifted elements plus the insertion
+            }
+        }
+
+        void pushRun(int base, int len) {
+            runBase[stackSize] = base;
+            runLen[stackSize] = len;
+            stackSize++;
+        }
+
+        /**
+         * Merges pending runs until, for the top runs X, Y, Z (Z on top),
+         * {@code len(X) > len(Y) + len(Z)} and {@code len(Y) > len(Z)} hold
+         * again, also checking one level further down.
+         */
+        void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if ((n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1])
+                        || (n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1])) {
+                    if (runLen[n - 1] < runLen[n + 1]) {
+                        n--;
+                    }
+                    mergeAt(n);
+                } else if (runLen[n] <= runLen[n + 1]) {
+                    mergeAt(n);
+                } else {
+                    break;
+                }
+            }
+        }
+
+        /** Merges all pending runs into one. */
+        void mergeForceCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /** Merges the adjacent stack runs {@code i} and {@code i + 1}. */
+        private void mergeAt(int i) {
+            int base1 = runBase[i];
+            int len1 = runLen[i];
+            int base2 = runBase[i + 1];
+            int len2 = runLen[i + 1];
+
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+
+            // Elements of run 1 not greater than run 2's first are already in place
+            int k = boundary(a[base2], a, base1, len1, true, false);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+
+            // Elements of run 2 not less than run 1's last are already in place
+            len2 = boundary(a[base1 + len1 - 1], a, base2, len2, false, true);
+            if (len2 == 0) {
+                return;
+            }
+
+            if (len1 <= len2) {
+                mergeLo(base1, len1, base2, len2);
+            } else {
+                mergeHi(base1, len1, base2, len2);
+            }
+        }
+
+        /**
+         * Finds the first index {@code k} in {@code [0, len]} such that
+         * {@code arr[base + k] > key} (if {@code strict}) or
+         * {@code arr[base + k] >= key} (otherwise), with {@code len} meaning
+         * no such element. The search gallops from the start or the end of
+         * the range in steps of 1, 2, 4, ... and then finishes with a binary
+         * search, so it costs O(log d) comparisons where {@code d} is the
+         * distance of the result from that end.
+         */
+        private int boundary(int key, int[] arr, int base, int len, boolean strict, boolean fromEnd) {
+            int lo;
+            int hi;
+            int step = 1;
+            int probes = 0;
+
+            if (!fromEnd) {
+                lo = 0;
+                while (true) {
+                    int probe = lo + step - 1;
+                    if (probe >= len) {
+                        hi = len;
+                        break;
+                    }
+                    probes++;
+                    int value = arr[base + probe];
+                    if (strict ? value > key : value >= key) {
+                        hi = probe;
+                        break;
+                    }
+                    lo = probe + 1;
+                    step <<= 1;
+                }
+            } else {
+                hi = len;
+                while (true) {
+                    int probe = hi - step;
+                    if (probe < 0) {
+                        lo = 0;
+                        break;
+                    }
+                    probes++;
+                    int value = arr[base + probe];
+                    if (!(strict ? value > key : value >= key)) {
+                        lo = probe + 1;
+                        break;
+                    }
+                    hi = probe;
+                    step <<= 1;
+                }
+            }
+
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                probes++;
+                int value = arr[base + mid];
+                if (strict ? value > key : value >= key) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+
+            counter.compare(probes);
+            return lo;
+        }
+
+        private int[] ensureCapacity(int minCapacity) {
+            if (tmp.length < minCapacity) {
+                tmp = new int[Math.max(minCapacity, Math.min(a.length / 2, minCapacity * 2))];
+                counter.allocate(tmp.length, Integer.BYTES);
+                SCRATCH.set(tmp);
+            }
+            return tmp;
+        }
+
+        /**
+         * Merges two adjacent runs left to right, buffering the first
+         * (shorter) run. Requires {@code a[base2] < a[base1]} and
+         * {@code a[base1 + len1 - 1] > a[base2 + len2 - 1]}.
+         */
+        private void mergeLo(int base1, int len1, int base2, int len2) {
+            int[] t = ensureCapacity(len1);
+            System.arraycopy(a, base1, t, 0, len1);
+            long compares = 0; // tallied locally, reported once per merge
+            long moves = len1; // copied into the buffer
+
+            int c1 = 0;       // next element of run 1, in t
+            int c2 = base2;   // next element of run 2, in a
+            int dest = base1;
+
+            outer:
+            while (true) {
+                int count1 = 0; // consecutive wins of run 1
+                int count2 = 0; // consecutive wins of run 2
+
+                // One element at a time until one run keeps winning
+                do {
+                    compares++;
+                    if (a[c2] < t[c1]) {
+                        a[dest++] = a[c2++];
+                        moves++;
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest++] = t[c1++];
+                        moves++;
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < MIN_GALLOP);
+
+                // Galloping: copy whole blocks while they stay long
+                do {
+                    count1 = boundary(a[c2], t, c1, len1, true, false);
+                    if (count1 != 0) {
+                        System.arraycopy(t, c1, a, dest, count1);
+                        moves += count1;
+                        dest += count1;
+                        c1 += count1;
+                        len1 -= count1;
+                        if (len1 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = a[c2++];
+                    moves++;
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+
+                    count2 = boundary(t[c1], a, c2, len2, false, false);
+                    if (count2 != 0) {
+                        System.arraycopy(a, c2, a, dest, count2);
+                        moves += count2;
+                        dest += count2;
+                        c2 += count2;
+                        len2 -= count2;
+                        if (len2 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = t[c1++];
+                    moves++;
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+            }
+
+            // The rest of run 2 is already in place; copy back the rest of run 1
+            if (len1 > 0) {
+                System.arraycopy(t, c1, a, dest, len1);
+                moves += len1;
+            }
+            counter.compare(compares);
+            counter.move(moves);
+        }
+
+        /**
+         * Merges two adjacent runs right to left, buffering the second
+         * (shorter) run. Requires {@code a[base2] < a[base1]} and
+         * {@code a[base1 + len1 - 1] > a[base2 + len2 - 1]}.
+         */
+        private void mergeHi(int base1, int len1, int base2, int len2) {
+            int[] t = ensureCapacity(len2);
+            System.arraycopy(a, base2, t, 0, len2);
+            long compares = 0; // tallied locally, reported once per merge
+            long moves = len2; // copied into the buffer
+
+            int c1 = base1 + len1 - 1; // last element of run 1, in a
+            int c2 = len2 - 1;         // last element of run 2, in t
+            int dest = base2 + len2 - 1;
+
+            outer:
+            while (true) {
+                int count1 = 0; // consecutive wins of run 1
+                int count2 = 0; // consecutive wins of run 2
+
+                // One element at a time until one run keeps winning
+                do {
+                    compares++;
+                    if (t[c2] < a[c1]) {
+                        a[dest--] = a[c1--];
+                        moves++;
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest--] = t[c2--];
+                        moves++;
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < MIN_GALLOP);
+
+                // Galloping: copy whole blocks while they stay long
+                do {
+                    count1 = len1 - boundary(t[c2], a, base1, len1, true, true);
+                    if (count1 != 0) {
+                        dest -= count1;
+                        c1 -= count1;
+                        len1 -= count1;
+                        System.arraycopy(a, c1 + 1, a, dest + 1, count1);
+                        moves += count1;
+                        if (len1 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = t[c2--];
+                    moves++;
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+
+                    count2 = len2 - boundary(a[c1], t, 0, len2, false, true);
+                    if (count2 != 0) {
+                        dest -= count2;
+                        c2 -= count2;
+                        len2 -= count2;
+                        System.arraycopy(t, c2 + 1, a, dest + 1, count2);
+                        moves += count2;
+                        if (len2 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = a[c1--];
+                    moves++;
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+            }
+
+            // The rest of run 1 is already in place; copy back the rest of run 2
+            if (len2 > 0) {
+                System.arraycopy(t, 0, a, dest - len2 + 1, len2);
+                moves += len2;
+            }
+            counter.compare(compares);
+            counter.move(moves);
+        }
+    }
+}
@@ -0,0 +1,461 @@
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Analyzer class for a bottom-up Merge Sort whose leaves are sorted by
+ * sorting networks held in SIMD registers.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Sorts blocks of {@value #BLOCK} elements with a bitonic sorting
+ *         network using the {@code jdk.incubator.vector} API, in vectors of
+ *         the CPU's preferred width: 4, 8 or 16 {@code int} lanes</li>
+ *     <li>Merges pairs of sorted runs a vector at a time with a bitonic
+ *         2-vector merge network, so the merge loop takes one data-dependent
+ *         branch per vector instead of one per element</li>
+ *     <li>Falls back to the same networks in scalar code, and to the scalar
+ *         merge of {@link MergeSortAnalyzer}, when the Vector API is not
+ *         available or the preferred vectors have another number of lanes</li>
+ *     <li>Reports results against the recursive buffered Merge Sort, whose
+ *         leaves are single elements, through {@link SortHarness}</li>
+ * </ul>
+ */
+public class NetworkMergeSortAnalyzer {
+
+    /** Width of the blocks sorted by a single network. */
+    static final int BLOCK = 32;
+
+    /** Whether the vector kernels can be used on this JVM and CPU. */
+    private static final boolean VECTORIZED =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() && Lanes.isUsable();
+
+    /**
+     * Number of {@code int} lanes the vector kernels work on, and the
+     * smallest network; 8 for the scalar fallback.
+     */
+    private static final int LANES = VECTORIZED ? Lanes.LENGTH : 8;
+
+    /** Compare-exchanges in the 2-vector merge network: a 2-vector network minus two 1-vector ones. */
+    private static final int MERGE_NETWORK_SIZE = networkSize(2 * LANES) - 2 * networkSize(LANES);
+
+    /** Per-thread ping-pong buffer; it only ever grows. */
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    /** Per-thread block used to pad a short trailing block to a network size. */
+    private static final ThreadLocal<int[]> PAD = ThreadLocal.withInitial(() -> new int[BLOCK]);
+
+    /**
+     * Executes an empirical analysis of the network Merge Sort for the given
+     * array size {@code n}, side by side with the recursive buffered Merge
+     * Sort on the same inputs.
+     * <p>
+     * It prints the number of operations and wall-clock time for the average,
+     * best and worst cases, and the speedup of the network leaves over the
+     * single-element recursive leaves.
+     *
+     * @param n               the array size to sort
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     */
+    public static void analyze(int n, int runs, int rangeMultiplier) {
+        List<AnalysisResult> results = SortHarness.analyze(
+                SortRegistry.get(List.of("merge-buffered", "merge-network")), n, runs, rangeMultiplier);
+
+        System.out.println(VECTORIZED
+                ? "Sorting networks: " + LANES + " int lanes per vector"
+                : "Sorting networks: scalar fallback");
+        SortHarness.print(results.get(0));
+        SortHarness.print(results.get(1));
+        SortHarness.printSpeedup(results.get(1), results.get(0));
+    }
+
+    /**
+     * @return whether the vector kernels are in use; if not, the scalar
+     *         fallback is
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Sorts {@code arr} with the network Merge Sort, reporting its work to
+     * {@code counter}.
+     * <p>
+     * Operations are counted as:
+     * <ul>
+     *     <li>One comparison per compare-exchange in a network (a lane-wise
+     *         min/max pair), and one move per element a network writes back
+     *         to memory; values exchanged inside registers are not moves</li>
+     *     <li>One comparison per block choice in the vector merge loop</li>
+     *     <li>Runs merged by the scalar merge, and block copies, are counted
+     *         as in {@link MergeSortAnalyzer#bottomUpMergeSort(int[])}</li>
+     * </ul>
+     * A network does more comparisons than a merge of the same elements, but
+     * does them a vector at a time and without branches. The vector merge
+     * counts depend on the number of lanes, and so on the CPU.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void networkMergeSort(int[] arr, OpCounter counter) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+
+        // Sort whole blocks in place, then the short trailing block
+        int full = n - n % BLOCK;
+        for (int lo = 0; lo < full; lo += BLOCK) {
+            sortBlock(arr, lo, BLOCK);
+        }
+        counter.compare((long) (full / BLOCK) * networkSize(BLOCK));
+        counter.move(full);
+        if (full < n) {
+            sortTail(arr, full, n - full, counter);
+        }
+        if (n <= BLOCK) {
+            return;
+        }
+
+        int[] src = arr;
+        int[] dst = scratch(n, counter);
+
+        for (int width = BLOCK; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int m = Math.min(lo + width, n) - 1;
+                int r = Math.min(lo + 2 * width, n) - 1;
+
+                if (m < r) {
+                    counter.compare(1); // arr[m] <= arr[m+1]
+                }
+                if (m >= r || src[m] <= src[m + 1]) {
+                    // Lone trailing run, or the pair is already in order
+                    System.arraycopy(src, lo, dst, lo, r - lo + 1);
+                    counter.move(r - lo + 1);
+                } else if (VECTORIZED && (m + 1 - lo) % LANES == 0 && (r - m) % LANES == 0) {
+                    int blocks = Lanes.merge(src, dst, lo, m, r);
+                    counter.compare((long) (blocks - 1) * MERGE_NETWORK_SIZE + blocks - 2);
+                    counter.move(r - lo + 1);
+                } else {
+                    // Only the pair involving the short trailing run gets here
+                    MergeSortAnalyzer.mergeInto(src, dst, lo, m, r, counter);
+                }
+            }
+
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        // After an odd number of levels the result is in the buffer
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            counter.move(n);
+        }
+    }
+
+    /**
+     * Sorts the {@code length < }{@value #BLOCK} elements of the trailing
+     * block {@code arr[from..from+length)} by padding them with
+     * {@link Integer#MAX_VALUE} up to the smallest network size (a power of
+     * two from {@link #LANES} to {@value #BLOCK}) that holds them.
+     *
+     * @param arr     the array containing the block
+     * @param from    the first index of the block
+     * @param length  the number of elements in the block
+     * @param counter receives the operations performed
+     */
+    private static void sortTail(int[] arr, int from, int length, OpCounter counter) {
+        int size = LANES;
+        while (size < length) {
+            size *= 2;
+        }
+
+        int[] pad = PAD.get();
+        System.arraycopy(arr, from, pad, 0, length);
+        Arrays.fill(pad, length, size, Integer.MAX_VALUE);
+        sortBlock(pad, 0, size);
+        System.arraycopy(pad, 0, arr, from, length);
+
+        counter.compare(networkSize(size));
+        counter.move(size + length); // network output plus the copy back
+    }
+
+    /**
+     * Sorts {@code a[off..off+size)} in place with a bitonic network.
+     *
+     * @param a    the array containing the block
+     * @param off  the first index of the block
+     * @param size a power of two from {@link #LANES} to {@value #BLOCK}
+     */
+    private static void sortBlock(int[] a, int off, int size) {
+        if (VECTORIZED) {
+            Lanes.sortBlock(a, off, size);
+        } else {
+            scalarNetwork(a, off, size);
+        }
+    }
+
+    /**
+     * Scalar bitonic sorting network for a power-of-two sized block. It
+     * performs the same compare-exchanges as the vector kernels, each as a
+     * branch-free min/max pair.
+     *
+     * @param a    the array containing the block
+     * @param off  the first index of the block
+     * @param size a power of two
+     */
+    private static void scalarNetwork(int[] a, int off, int size) {
+        for (int k = 2; k <= size; k <<= 1) {
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                for (int i = 0; i < size; i++) {
+                    int p = i ^ j;
+                    if (p > i) {
+                        int x = a[off + i];
+                        int y = a[off + p];
+                        boolean ascending = (i & k) == 0;
+                        a[off + i] = ascending ? Math.min(x, y) : Math.max(x, y);
+                        a[off + p] = ascending ? Math.max(x, y) : Math.min(x, y);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of compare-exchanges in a bitonic sorting network for
+     * {@code size = 2^k} elements: {@code (size / 2) * k * (k + 1) / 2}.
+     *
+     * @param size a power of two
+     * @return the number of compare-exchanges
+     */
+    private static int networkSize(int size) {
+        int k = Integer.numberOfTrailingZeros(size);
+        return size / 2 * k * (k + 1) / 2;
+    }
+
+    /**
+     * Returns the calling thread's scratch buffer, growing it to at least
+     * {@code n} elements if necessary.
+     *
+     * @param n       the required capacity
+     * @param counter receives the allocation, if one is made
+     * @return a buffer of at least {@code n} elements
+     */
+    private static int[] scratch(int n, OpCounter counter) {
+        int[] buf = SCRATCH.get();
+        if (buf.length < n) {
+            buf = new int[n];
+            counter.allocate(n, Integer.BYTES);
+            SCRATCH.set(buf);
+        }
+        return buf;
+    }
+
+    /**
+     * The vector kernels. They are kept in their own class so that
+     * {@link NetworkMergeSortAnalyzer} can be loaded, and use the scalar
+     * fallback, without the incubator module.
+     * <p>
+     * Vectors have the CPU's preferred shape: 4, 8 or 16 {@code int} lanes
+     * for 128-, 256- and 512-bit SIMD. Every network step exchanges each lane
+     * with a partner lane (a shuffle) and keeps either the minimum or the
+     * maximum of the pair (a blend mask); the steps for the vector's width
+     * are built once into a table.
+     * <p>
+     * Vectors are stored back to the array between kernels. A vector passed
+     * to or returned from a method the JIT did not inline is boxed on the
+     * heap, and the JIT stops inlining before it reaches the end of a block
+     * network; the steps of a network are a loop for the same reason.
+     */
+    private static final class Lanes {
+        private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+        /** Number of lanes per vector. */
+        static final int LENGTH = SPECIES.length();
+
+        private static final VectorShuffle<Integer> REVERSE =
+                VectorShuffle.fromOp(SPECIES, i -> LENGTH - 1 - i);
+
+        /** Partner lanes of each step of the network sorting one vector. */
+        private static final VectorShuffle<Integer>[] PARTNERS;
+
+        /** Lanes keeping the maximum in each step of the network sorting one vector. */
+        private static final VectorMask<Integer>[] MAX_LANES;
+
+        /** First step of the last stage, which sorts a bitonic vector. */
+        private static final int CLEAN;
+
+        static {
+            int stages = Integer.numberOfTrailingZeros(LENGTH);
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            VectorShuffle<Integer>[] partners = new VectorShuffle[stages * (stages + 1) / 2];
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            VectorMask<Integer>[] maxLanes = new VectorMask[partners.length];
+            int step = 0;
+            for (int k = 2; k <= LENGTH; k *= 2) {
+                for (int j = k / 2; j > 0; j /= 2) {
+                    int distance = j;
+                    partners[step] = VectorShuffle.fromOp(SPECIES, i -> i ^ distance);
+                    maxLanes[step] = maxLanes(k, j);
+                    step++;
+                }
+            }
+            PARTNERS = partners;
+            MAX_LANES = maxLanes;
+            CLEAN = partners.length - stages;
+        }
+
+        /**
+         * @return whether the CPU's preferred vectors have 4, 8 or 16
+         *         {@code int} lanes, so that the kernels are not emulated and
+         *         a vector fits in a block
+         */
+        static boolean isUsable() {
+            int length = IntVector.SPECIES_PREFERRED.length();
+            return length == 4 || length == 8 || length == 16;
+        }
+
+        /**
+         * Lanes that keep the maximum in the step with partner distance
+         * {@code j} of the bitonic stage building sorted runs of {@code k}:
+         * the upper lane of a pair in an ascending run, the lower lane in a
+         * descending one.
+         */
+        private static VectorMask<Integer> maxLanes(int k, int j) {
+            long bits = 0;
+            for (int i = 0; i < LENGTH; i++) {
+                boolean upper = (i & j) != 0;
+                boolean ascending = (i & k) == 0;
+                if (upper == ascending) {
+                    bits |= 1L << i;
+                }
+            }
+            return VectorMask.fromLong(SPECIES, bits);
+        }
+
+        /**
+         * Runs the network steps from {@code first} on the vector at
+         * {@code a[off]}: from 0 it sorts the vector, from {@link #CLEAN} it
+         * sorts a bitonic one.
+         */
+        private static void network(int[] a, int off, int first) {
+            IntVector v = IntVector.fromArray(SPECIES, a, off);
+            for (int step = first; step < PARTNERS.length; step++) {
+                IntVector p = v.rearrange(PARTNERS[step]);
+                v = v.min(p).blend(v.max(p), MAX_LANES[step]);
+            }
+            v.intoArray(a, off);
+        }
+
+        /**
+         * Compares the vectors at {@code a[low]} and {@code a[high]} lane by
+         * lane, leaving the minima at {@code low} and the maxima at
+         * {@code high}; with {@code reversed}, the lanes at {@code high} are
+         * read and written in reverse order.
+         */
+        private static void exchange(int[] a, int low, int high, boolean reversed) {
+            IntVector x = IntVector.fromArray(SPECIES, a, low);
+            IntVector y = IntVector.fromArray(SPECIES, a, high);
+            if (reversed) {
+                y = y.rearrange(REVERSE);
+                x.min(y).intoArray(a, low);
+                x.max(y).rearrange(REVERSE).intoArray(a, high);
+            } else {
+                x.min(y).intoArray(a, low);
+                x.max(y).intoArray(a, high);
+            }
+        }
+
+        /**
+         * Sorts {@code a[off..off+size)} in place with a bitonic network:
+         * each vector is sorted in registers, then sorted runs are merged
+         * pairwise, each merge comparing the first run with the reversed
+         * second one and half-cleaning both halves.
+         *
+         * @param size a power of two, at least {@link #LENGTH}
+         */
+        static void sortBlock(int[] a, int off, int size) {
+            int end = off + size;
+            for (int i = off; i < end; i += LENGTH) {
+                network(a, i, 0);
+            }
+            for (int width = LENGTH; width < size; width *= 2) {
+                for (int run = off; run < end; run += 2 * width) {
+                    mergeRuns(a, run, width);
+                }
+            }
+        }
+
+        /**
+         * Merges the sorted runs {@code a[run..run+width)} and
+         * {@code a[run+width..run+2*width)} in place.
+         */
+        private static void mergeRuns(int[] a, int run, int width) {
+            // Pairwise min and max against the reversed second run leave the
+            // lower values in the first run and the upper ones in the second,
+            // each bitonic; the maxima are stored reversed, still bitonic
+            int end = run + 2 * width;
+            for (int t = 0; t < width; t += LENGTH) {
+                exchange(a, run + t, end - LENGTH - t, true);
+            }
+
+            // Half-clean each bitonic run by whole vectors, then inside them
+            for (int distance = width / 2; distance >= LENGTH; distance /= 2) {
+                for (int half = run; half < end; half += 2 * distance) {
+                    for (int i = half; i < half + distance; i += LENGTH) {
+                        exchange(a, i, i + distance, false);
+                    }
+                }
+            }
+            for (int i = run; i < end; i += LENGTH) {
+                network(a, i, CLEAN);
+            }
+        }
+
+        /**
+         * Merges the sorted runs {@code src[l..m]} and {@code src[m+1..r]},
+         * both a multiple of {@link #LENGTH} long, into {@code dst[l..r]}.
+         * <p>
+         * Each 2-vector merge leaves its lower vector in {@code dst}, final,
+         * and its upper vector right after it, where it is merged with the
+         * next vector of whichever run has the smaller head.
+         *
+         * @return the number of vectors read
+         */
+        static int merge(int[] src, int[] dst, int l, int m, int r) {
+            int i = l + LENGTH;
+            int j = m + 1 + LENGTH;
+            int k = l;
+            int next = l;
+            int blocks = 2;
+
+            IntVector.fromArray(SPECIES, src, m + 1).intoArray(dst, k);
+            while (true) {
+                IntVector.fromArray(SPECIES, src, next).intoArray(dst, k + LENGTH);
+                exchange(dst, k, k + LENGTH, true);
+                network(dst, k, CLEAN);
+                network(dst, k + LENGTH, CLEAN);
+                k += LENGTH;
+
+                if (i <= m && (j > r || src[i] <= src[j])) {
+                    next = i;
+                    i += LENGTH;
+                } else if (j <= r) {
+                    next = j;
+                    j += LENGTH;
+                } else {
+                    return blocks;
+                }
+                blocks++;
+            }
+        }
+    }
+}
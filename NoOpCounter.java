@@ -0,0 +1,29 @@
+/**
+ * {@link OpCounter} that records nothing, used on the timing path.
+ * <p>
+ * All methods are empty, so calls to them are inlined away by the JIT.
+ */
+enum NoOpCounter implements OpCounter {
+    INSTANCE;
+
+    @Override
+    public void compare(long count) {
+    }
+
+    @Override
+    public void move(long count) {
+    }
+
+    @Override
+    public void allocate(long elements, int elementBytes) {
+    }
+
+    @Override
+    public OpCounter fork() {
+        return this;
+    }
+
+    @Override
+    public void join(OpCounter child) {
+    }
+}
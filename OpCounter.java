@@ -0,0 +1,60 @@
+/**
+ * Receives the basic operations performed by a sorting engine.
+ * <p>
+ * Every engine has a single implementation that reports its work through an
+ * {@code OpCounter}. Two implementations exist:
+ * <ul>
+ *     <li>{@link #NONE}, whose methods do nothing. It is used when timing a
+ *         sort; the JIT inlines the empty calls, leaving at most a type
+ *         check behind.</li>
+ *     <li>{@link DetailedCounter}, which records comparisons, moves and
+ *         allocations separately and is used to produce {@link SortStats}.</li>
+ * </ul>
+ * Engines report counts in bulk (for example, once per merge rather than
+ * once per element), deriving them from loop indices where possible and
+ * otherwise tallying them in local variables, so the innermost loops run
+ * the same code on both paths.
+ */
+public interface OpCounter {
+
+    /** Counter that discards everything; used on the timing path. */
+    OpCounter NONE = NoOpCounter.INSTANCE;
+
+    /**
+     * Records key comparisons (including loop-condition comparisons that the
+     * analyzers have always counted).
+     *
+     * @param count the number of comparisons
+     */
+    void compare(long count);
+
+    /**
+     * Records element assignments.
+     *
+     * @param count the number of assignments
+     */
+    void move(long count);
+
+    /**
+     * Records an array allocation made by the engine.
+     *
+     * @param elements     the number of array elements allocated
+     * @param elementBytes the size of one element in bytes
+     */
+    void allocate(long elements, int elementBytes);
+
+    /**
+     * Creates a counter for a subtask that may run on another thread. Its
+     * counts must later be added back with {@link #join(OpCounter)}.
+     *
+     * @return a new child counter, or this counter if it records nothing
+     */
+    OpCounter fork();
+
+    /**
+     * Adds the counts of a child created by {@link #fork()}.
+     *
+     * @param child the finished child counter
+     */
+    void join(OpCounter child);
+}
@@ -0,0 +1,260 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel Merge Sort built on the fork/join framework.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Splits the {@code [l, r]} recursion of Merge Sort into
+ *         {@link RecursiveAction} tasks down to a configurable cutoff</li>
+ *     <li>Sorts ranges at or below the cutoff with the sequential
+ *         single-buffer Merge Sort from {@link MergeSortAnalyzer}</li>
+ *     <li>Merges large ranges in parallel by splitting them around the median
+ *         of the larger run, located in the smaller run by binary search</li>
+ * </ul>
+ * Every task reports its operations to its own {@link OpCounter#fork() forked}
+ * counter; parents {@link OpCounter#join join} the counters of their
+ * children after the children complete, so no shared counter is contended
+ * during the sort.
+ */
+public class ParallelMergeSort {
+
+    /** Default size at or below which ranges are sorted or merged sequentially. */
+    public static final int DEFAULT_CUTOFF = 8192;
+
+    /**
+     * Sorts {@code arr} on the common fork/join pool using
+     * {@link #DEFAULT_CUTOFF}.
+     *
+     * @param arr the array to sort in-place
+     * @return the number of basic operations performed
+     */
+    public static long parallelMergeSort(int[] arr) {
+        return parallelMergeSort(arr, DEFAULT_CUTOFF, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts {@code arr} on the given fork/join pool.
+     * <p>
+     * Operations are counted the same way as
+     * {@link MergeSortAnalyzer#bufferedMergeSort(int[])}: one per element
+     * copied into the scratch buffer and one per comparison and assignment
+     * while merging. Each binary-search probe performed to split a parallel
+     * merge is counted as an additional comparison.
+     *
+     * @param arr    the array to sort in-place
+     * @param cutoff range size at or below which work is done sequentially;
+     *               must be at least 1
+     * @param pool   the pool to run the tasks on
+     * @return the number of basic operations performed
+     * @throws IllegalArgumentException if {@code cutoff < 1}
+     */
+    public static long parallelMergeSort(int[] arr, int cutoff, ForkJoinPool pool) {
+        DetailedCounter counter = new DetailedCounter();
+        parallelMergeSort(arr, cutoff, pool, counter);
+        return counter.ops();
+    }
+
+    /**
+     * Sorts {@code arr} on the common fork/join pool using
+     * {@link #DEFAULT_CUTOFF}, reporting its work to {@code counter}.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void parallelMergeSort(int[] arr, OpCounter counter) {
+        parallelMergeSort(arr, DEFAULT_CUTOFF, ForkJoinPool.commonPool(), counter);
+    }
+
+    /**
+     * Sorts {@code arr} on the given fork/join pool, reporting its work to
+     * {@code counter}.
+     *
+     * @param arr     the array to sort in-place
+     * @param cutoff  range size at or below which work is done sequentially;
+     *                must be at least 1
+     * @param pool    the pool to run the tasks on
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @throws IllegalArgumentException if {@code cutoff < 1}
+     * @see #parallelMergeSort(int[], int, ForkJoinPool)
+     */
+    public static void parallelMergeSort(int[] arr, int cutoff, ForkJoinPool pool, OpCounter counter) {
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+
+        int[] buf = arr.clone();
+        counter.allocate(n, Integer.BYTES);
+        counter.move(n); // one assignment per element copied
+
+        SortTask task = new SortTask(buf, arr, 0, n - 1, cutoff, counter.fork());
+        pool.invoke(task);
+        counter.join(task.counter);
+    }
+
+    /**
+     * Sorts {@code src[l..r]} into {@code dst[l..r]} using the same
+     * ping-pong scheme as the sequential buffered Merge Sort.
+     */
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final int[] dst;
+        private final int l;
+        private final int r;
+        private final int cutoff;
+
+        /** Operations performed by this task and all of its subtasks. */
+        final transient OpCounter counter;
+
+        SortTask(int[] src, int[] dst, int l, int r, int cutoff, OpCounter counter) {
+            this.src = src;
+            this.dst = dst;
+            this.l = l;
+            this.r = r;
+            this.cutoff = cutoff;
+            this.counter = counter;
+        }
+
+        @Override
+        protected void compute() {
+            if (r - l + 1 <= cutoff) {
+                MergeSortAnalyzer.sortInto(src, dst, l, r, counter);
+                return;
+            }
+
+            int m = l + (r - l) / 2;
+
+            // Sort both halves into src so they can be merged into dst
+            SortTask left = new SortTask(dst, src, l, m, cutoff, counter.fork());
+            SortTask right = new SortTask(dst, src, m + 1, r, cutoff, counter.fork());
+            invokeAll(left, right);
+            counter.join(left.counter);
+            counter.join(right.counter);
+
+            new MergeTask(src, l, m, m + 1, r, dst, l, cutoff, counter).compute();
+        }
+    }
+
+    /**
+     * Merges the sorted runs {@code src[lo1..hi1]} and {@code src[lo2..hi2]}
+     * into {@code dst} starting at index {@code k}.
+     */
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int[] dst;
+        private final int k;
+        private final int cutoff;
+
+        /** Operations performed by this task and all of its subtasks. */
+        final transient OpCounter counter;
+
+        MergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int k, int cutoff,
+                  OpCounter counter) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.k = k;
+            this.cutoff = cutoff;
+            this.counter = counter;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1 + 1;
+            int n2 = hi2 - lo2 + 1;
+
+            if (n1 + n2 <= cutoff) {
+                mergeRuns(src, lo1, hi1, lo2, hi2, dst, k, counter);
+                return;
+            }
+
+            // Always split around the median of the larger run
+            if (n1 < n2) {
+                new MergeTask(src, lo2, hi2, lo1, hi1, dst, k, cutoff, counter).compute();
+                return;
+            }
+
+            int mid1 = lo1 + (hi1 - lo1) / 2;
+            int pivot = src[mid1];
+
+            // Binary search for the first element of run 2 that is >= pivot
+            int lo = lo2;
+            int hi = hi2 + 1;
+            int probes = 0;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                probes++;
+                if (src[mid] < pivot) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            int mid2 = lo;
+            counter.compare(probes);
+
+            int pivotPos = k + (mid1 - lo1) + (mid2 - lo2);
+            dst[pivotPos] = pivot;
+            counter.move(1);
+
+            MergeTask left = new MergeTask(src, lo1, mid1 - 1, lo2, mid2 - 1, dst, k, cutoff,
+                    counter.fork());
+            MergeTask right = new MergeTask(src, mid1 + 1, hi1, mid2, hi2, dst, pivotPos + 1, cutoff,
+                    counter.fork());
+            invokeAll(left, right);
+            counter.join(left.counter);
+            counter.join(right.counter);
+        }
+    }
+
+    /**
+     * Sequentially merges {@code src[lo1..hi1]} and {@code src[lo2..hi2]} into
+     * {@code dst} starting at {@code k}, counting comparisons and assignments
+     * exactly like the sequential merge in {@link MergeSortAnalyzer}.
+     */
+    private static void mergeRuns(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int k,
+                                  OpCounter counter) {
+        int written = (hi1 - lo1 + 1) + (hi2 - lo2 + 1);
+
+        int i = lo1;
+        int j = lo2;
+
+        while (i <= hi1 && j <= hi2) {
+            if (src[i] <= src[j]) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+
+        while (i <= hi1) {
+            dst[k++] = src[i++];
+        }
+
+        while (j <= hi2) {
+            dst[k++] = src[j++];
+        }
+
+        counter.compare(written); // one merge or loop-condition comparison each
+        counter.move(written);
+    }
+}
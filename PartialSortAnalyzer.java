@@ -0,0 +1,320 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Analyzer class for partial sorting: finding the {@code k} smallest
+ * elements of an array, in ascending order, without sorting all of it.
+ * <p>
+ * This class compares four ways of answering the query on the same inputs:
+ * <ul>
+ *     <li>{@code k} passes of Selection Sort
+ *         ({@link SelectionSortAnalyzer#partialSelectionSort}), O(nk)</li>
+ *     <li>A bounded max-heap over the values ({@link TopK}), O(n log k)</li>
+ *     <li>Introselect for the {@code k}-th smallest element
+ *         ({@link #select}), expected O(n), followed by a Merge Sort of the
+ *         {@code k} elements before it, O(n + k log k)</li>
+ *     <li>A full buffered Merge Sort followed by taking the first {@code k}
+ *         elements, O(n log n)</li>
+ * </ul>
+ * For a range of {@code k} it prints each method's operation count and time,
+ * and for each partial method the largest {@code k} measured at which it
+ * still beats the full sort.
+ */
+public class PartialSortAnalyzer {
+
+    /** Ranges at most this long are finished by insertion sort in {@link #select}. */
+    private static final int INSERTION_THRESHOLD = 16;
+
+    /** The ways of answering the query, in report order; the last is the full sort. */
+    private static final List<Method> METHODS = List.of(
+            new Method("selection (k passes)", "O(nk)", PartialSortAnalyzer::smallestBySelection),
+            new Method("heap top-k", "O(n log k)", PartialSortAnalyzer::smallestByHeap),
+            new Method("introselect + sort", "O(n + k log k)", PartialSortAnalyzer::smallestBySelect),
+            new Method("full merge sort", "O(n log n)", PartialSortAnalyzer::smallestBySorting));
+
+    /**
+     * Executes an empirical comparison of the partial sorting methods for
+     * array size {@code n}, for {@code k} from 1 to {@code n}.
+     * <p>
+     * Each method answers the query on the same {@code runs} unique random
+     * arrays, measured through {@link SortHarness#measure(SortAlgorithm, int[][])}:
+     * operation counts come from instrumented runs and times from separate
+     * uninstrumented runs, with the adaptive sampler if one is in use.
+     *
+     * @param n               the array size
+     * @param runs            the number of random arrays to average over
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     */
+    public static void analyze(int n, int runs, int rangeMultiplier) {
+        int maxValue = n * rangeMultiplier;
+        int[] ks = kValues(n);
+
+        int[][] inputs = new int[runs][];
+        for (int i = 0; i < runs; i++) {
+            inputs[i] = SortHarness.input(Workload.RANDOM, n, maxValue, i);
+        }
+
+        System.out.println("Partial sort, smallest k of n = " + n + " (average of " + runs + " runs):");
+        System.out.printf("  %-9s", "k");
+        for (Method method : METHODS) {
+            System.out.printf(" | %-30s", method.name);
+        }
+        System.out.println();
+
+        // Largest k at which each partial method was faster than the full sort
+        int[] crossover = new int[METHODS.size() - 1];
+        for (int k : ks) {
+            long[] nanos = new long[METHODS.size()];
+            System.out.printf("  %-9d", k);
+            for (int m = 0; m < METHODS.size(); m++) {
+                AnalysisResult.Case result = SortHarness.measure(METHODS.get(m).at(k), inputs);
+                nanos[m] = result.nanos();
+                System.out.printf(" | ops = %-12d %-11s", result.stats().ops(), SortHarness.formatTime(nanos[m]));
+            }
+            System.out.println();
+
+            long full = nanos[METHODS.size() - 1];
+            for (int m = 0; m < crossover.length; m++) {
+                if (nanos[m] < full) {
+                    crossover[m] = k;
+                }
+            }
+        }
+
+        for (int m = 0; m < crossover.length; m++) {
+            System.out.printf("  %-20s beats the full sort up to k = %s%n", METHODS.get(m).name,
+                    crossover[m] == 0 ? "none measured" : Integer.toString(crossover[m]));
+        }
+    }
+
+    /**
+     * @param n the array size
+     * @return the number of (method, k) cells {@link #analyze} measures for
+     *         size {@code n}, for dividing a time budget between them
+     */
+    static int cells(int n) {
+        return kValues(n).length * METHODS.size();
+    }
+
+    /**
+     * @return the values of {@code k} to measure for size {@code n}: 1, powers
+     *         of ten, and fractions of {@code n}, in ascending order
+     */
+    private static int[] kValues(int n) {
+        TreeSet<Integer> ks = new TreeSet<>();
+        for (int k = 1; k <= n; k *= 10) {
+            ks.add(k);
+        }
+        for (int divisor : new int[] {100, 10, 4, 2, 1}) {
+            ks.add(Math.max(1, n / divisor));
+        }
+        return ks.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the {@code k} smallest elements of {@code arr} in ascending
+     * order using {@code k} Selection Sort passes. {@code arr} is reordered.
+     *
+     * @param arr     the values
+     * @param k       the number of smallest values wanted, {@code 1 <= k <= n}
+     * @param counter receives the operations performed
+     * @return the {@code k} smallest values in ascending order
+     */
+    public static int[] smallestBySelection(int[] arr, int k, OpCounter counter) {
+        SelectionSortAnalyzer.partialSelectionSort(arr, k, counter);
+        return prefix(arr, k, counter);
+    }
+
+    /**
+     * Returns the {@code k} smallest elements of {@code arr} in ascending
+     * order using a bounded heap. {@code arr} is not modified.
+     *
+     * @param arr     the values
+     * @param k       the number of smallest values wanted, {@code 1 <= k <= n}
+     * @param counter receives the operations performed
+     * @return the {@code k} smallest values in ascending order
+     */
+    public static int[] smallestByHeap(int[] arr, int k, OpCounter counter) {
+        TopK top = new TopK(k, counter);
+        top.offerAll(arr);
+        return top.toSortedArray();
+    }
+
+    /**
+     * Returns the {@code k} smallest elements of {@code arr} in ascending
+     * order by selecting the {@code k}-th smallest element with
+     * {@link #select} and sorting the elements before it. {@code arr} is
+     * reordered.
+     *
+     * @param arr     the values
+     * @param k       the number of smallest values wanted, {@code 1 <= k <= n}
+     * @param counter receives the operations performed
+     * @return the {@code k} smallest values in ascending order
+     */
+    public static int[] smallestBySelect(int[] arr, int k, OpCounter counter) {
+        select(arr, k - 1, counter);
+        int[] result = prefix(arr, k, counter);
+        MergeSortAnalyzer.bufferedMergeSort(result, counter);
+        return result;
+    }
+
+    /**
+     * Returns the {@code k} smallest elements of {@code arr} in ascending
+     * order by sorting all of it. {@code arr} is sorted.
+     *
+     * @param arr     the values
+     * @param k       the number of smallest values wanted, {@code 1 <= k <= n}
+     * @param counter receives the operations performed
+     * @return the {@code k} smallest values in ascending order
+     */
+    public static int[] smallestBySorting(int[] arr, int k, OpCounter counter) {
+        MergeSortAnalyzer.bufferedMergeSort(arr, counter);
+        return prefix(arr, k, counter);
+    }
+
+    private static int[] prefix(int[] arr, int k, OpCounter counter) {
+        counter.allocate(k, Integer.BYTES);
+        counter.move(k);
+        return Arrays.copyOf(arr, k);
+    }
+
+    /**
+     * Rearranges {@code arr} so that {@code arr[k]} is the element that
+     * would be there if the array were sorted, every element before it is
+     * not greater and every element after it is not smaller.
+     * <p>
+     * This is introselect: quickselect with a median-of-three pivot and a
+     * three-way partition, so runs of equal keys cost nothing extra, in
+     * expected O(n) time. If the partitions keep coming out unbalanced, after
+     * {@code 2 log2(n)} rounds the remaining range is finished with a heap
+     * selection, which bounds the worst case to O(n log n). Short ranges are
+     * finished with insertion sort.
+     * <p>
+     * Operations are counted as one per comparison and one per assignment,
+     * three per swap.
+     *
+     * @param arr     the array to rearrange
+     * @param k       the index to select, {@code 0 <= k < n}
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @return the {@code k}-th smallest element (0-based)
+     * @throws IllegalArgumentException if {@code k} is out of range
+     */
+    public static int select(int[] arr, int k, OpCounter counter) {
+        if (k < 0 || k >= arr.length) {
+            throw new IllegalArgumentException("Index " + k + " out of range for length " + arr.length);
+        }
+
+        int lo = 0;
+        int hi = arr.length - 1;
+        int rounds = 2 * (32 - Integer.numberOfLeadingZeros(arr.length));
+
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            if (rounds-- == 0) {
+                heapSelect(arr, lo, hi, k, counter);
+                return arr[k];
+            }
+
+            int pivot = medianOfThree(arr[lo], arr[lo + (hi - lo) / 2], arr[hi]);
+            counter.compare(3);
+
+            // Three-way partition: [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            long comparisons = 0;
+            long swaps = 0;
+            while (i <= gt) {
+                int x = arr[i];
+                comparisons++;
+                if (x < pivot) {
+                    arr[i++] = arr[lt];
+                    arr[lt++] = x;
+                    swaps++;
+                } else {
+                    comparisons++;
+                    if (x > pivot) {
+                        arr[i] = arr[gt];
+                        arr[gt--] = x;
+                        swaps++;
+                    } else {
+                        i++;
+                    }
+                }
+            }
+            counter.compare(comparisons);
+            counter.move(3 * swaps);
+
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return arr[k];
+            }
+        }
+
+        MergeSortAnalyzer.insertionSort(arr, lo, hi, counter);
+        return arr[k];
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Selects index {@code k} of {@code arr[lo..hi]} by keeping the
+     * {@code k - lo + 1} smallest elements in a max-heap at the start of the
+     * range, then swapping the heap's maximum into place.
+     */
+    private static void heapSelect(int[] arr, int lo, int hi, int k, OpCounter counter) {
+        int size = k - lo + 1;
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            TopK.siftDown(arr, lo, i, arr[lo + i], size, counter);
+        }
+        for (int j = k + 1; j <= hi; j++) {
+            counter.compare(1);
+            if (arr[j] < arr[lo]) {
+                // The maximum moves out to j; arr[j] sifts down from the root
+                int value = arr[j];
+                arr[j] = arr[lo];
+                counter.move(1);
+                TopK.siftDown(arr, lo, 0, value, size, counter);
+            }
+        }
+        int temp = arr[k];
+        arr[k] = arr[lo];
+        arr[lo] = temp;
+        counter.move(3);
+    }
+
+    /** Answers the smallest-{@code k} query. */
+    @FunctionalInterface
+    private interface Query {
+        int[] smallest(int[] arr, int k, OpCounter counter);
+    }
+
+    /** A named way of answering the query. */
+    private static final class Method {
+        final String name;
+        final String complexity;
+        final Query query;
+
+        Method(String name, String complexity, Query query) {
+            this.name = name;
+            this.complexity = complexity;
+            this.query = query;
+        }
+
+        /**
+         * @return an engine answering the query for {@code k}, whose "sort"
+         *         is the query and discards its result
+         */
+        SortAlgorithm at(int k) {
+            return SortRegistry.engine(name + ", k = " + k, name, complexity,
+                    (arr, counter) -> query.smallest(arr, k, counter));
+        }
+    }
+}
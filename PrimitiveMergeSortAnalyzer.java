@@ -0,0 +1,334 @@
+import java.util.List;
+
+/**
+ * Analyzer class for Merge Sort specialized to other primitive element
+ * types, without boxing and without a {@code Comparator}.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Sorts {@code long[]} and {@code double[]} arrays with the same
+ *         single-buffer ping-pong scheme as
+ *         {@link MergeSortAnalyzer#bufferedMergeSort(int[])}</li>
+ *     <li>Orders {@code double} values like {@link Double#compare}:
+ *         {@code -0.0} before {@code 0.0}, and every NaN after positive
+ *         infinity</li>
+ *     <li>Sorts {@code (int[] keys, int[] payload)} pairs stably by key,
+ *         moving each payload with its key, for example to sort row ids by a
+ *         column</li>
+ *     <li>Reuses per-thread buffers of each element type across runs</li>
+ *     <li>Reports results against the {@code int[]} Merge Sort through
+ *         {@link SortHarness}</li>
+ * </ul>
+ * Operations are counted as in {@link MergeSortAnalyzer#bufferedMergeSort(int[])}:
+ * one per comparison and one per assignment, where moving a key together
+ * with its payload counts as two assignments.
+ */
+public class PrimitiveMergeSortAnalyzer {
+
+    /** Per-thread ping-pong buffers, one per element type; they only ever grow. */
+    private static final ThreadLocal<long[]> LONG_SCRATCH = ThreadLocal.withInitial(() -> new long[0]);
+    private static final ThreadLocal<double[]> DOUBLE_SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+    private static final ThreadLocal<int[]> KEY_SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+    private static final ThreadLocal<int[]> PAYLOAD_SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    /**
+     * Executes an empirical analysis of the specialized Merge Sorts for the
+     * given array size {@code n}, side by side with the {@code int[]}
+     * buffered Merge Sort on the same values.
+     * <p>
+     * It prints the number of operations and wall-clock time for the average,
+     * best and worst cases of each element type, and its speedup relative to
+     * {@code int[]}.
+     *
+     * @param n               the array size to sort
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     */
+    public static void analyze(int n, int runs, int rangeMultiplier) {
+        List<AnalysisResult> results = SortHarness.analyze(
+                SortRegistry.get(List.of("merge-buffered", "merge-long", "merge-double", "merge-keyindex")),
+                n, runs, rangeMultiplier);
+
+        AnalysisResult ints = results.get(0);
+        for (AnalysisResult result : results) {
+            SortHarness.print(result);
+            if (result != ints) {
+                SortHarness.printSpeedup(result, ints);
+            }
+        }
+    }
+
+    /**
+     * Sorts {@code arr} in ascending order, reporting its work to
+     * {@code counter}.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void mergeSort(long[] arr, OpCounter counter) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+
+        long[] buf = LONG_SCRATCH.get();
+        if (buf.length < n) {
+            buf = new long[n];
+            counter.allocate(n, Long.BYTES);
+            LONG_SCRATCH.set(buf);
+        }
+
+        System.arraycopy(arr, 0, buf, 0, n);
+        counter.move(n);
+
+        sortInto(buf, arr, 0, n - 1, counter);
+    }
+
+    /**
+     * Sorts {@code src[l..r]} into {@code dst[l..r]}; see
+     * {@link MergeSortAnalyzer#sortInto}.
+     */
+    private static void sortInto(long[] src, long[] dst, int l, int r, OpCounter counter) {
+        if (l >= r) {
+            return;
+        }
+
+        int m = l + (r - l) / 2;
+
+        sortInto(dst, src, l, m, counter);
+        sortInto(dst, src, m + 1, r, counter);
+
+        int i = l;
+        int j = m + 1;
+        int k = l;
+        while (i <= m && j <= r) {
+            if (src[i] <= src[j]) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+        while (i <= m) {
+            dst[k++] = src[i++];
+        }
+        while (j <= r) {
+            dst[k++] = src[j++];
+        }
+
+        counter.compare(r - l + 1);
+        counter.move(r - l + 1);
+    }
+
+    /**
+     * Sorts {@code arr} in the ascending order of {@link Double#compare},
+     * reporting its work to {@code counter}.
+     * <p>
+     * As in {@link java.util.Arrays#sort(double[])}, comparisons in the merge
+     * itself are plain {@code <=} on {@code double}s. Before sorting, one
+     * pass moves every NaN to the end of the array and turns every
+     * {@code -0.0} into {@code 0.0}, remembering how many there were. After
+     * sorting, that many of the zeros at the start of the zero range are set
+     * back to {@code -0.0}. NaN bit patterns are preserved.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void mergeSort(double[] arr, OpCounter counter) {
+        int n = arr.length;
+
+        // NaNs to [end, n), -0.0 to 0.0
+        int end = n;
+        int negativeZeros = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            double v = arr[i];
+            if (v != v) {
+                arr[i] = arr[--end];
+                arr[end] = v;
+                counter.move(2);
+            } else if (v == 0.0 && Double.doubleToRawLongBits(v) < 0) {
+                arr[i] = 0.0;
+                negativeZeros++;
+                counter.move(1);
+            }
+        }
+        counter.compare(n); // one NaN or zero check per element
+
+        if (end >= 2) {
+            double[] buf = DOUBLE_SCRATCH.get();
+            if (buf.length < end) {
+                buf = new double[end];
+                counter.allocate(end, Double.BYTES);
+                DOUBLE_SCRATCH.set(buf);
+            }
+
+            System.arraycopy(arr, 0, buf, 0, end);
+            counter.move(end);
+
+            sortInto(buf, arr, 0, end - 1, counter);
+        }
+
+        if (negativeZeros > 0) {
+            // First zero: the first element not below 0.0
+            int lo = 0;
+            int hi = end;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (arr[mid] < 0.0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+                counter.compare(1);
+            }
+            for (int i = lo; i < lo + negativeZeros; i++) {
+                arr[i] = -0.0;
+            }
+            counter.move(negativeZeros);
+        }
+    }
+
+    /**
+     * Sorts {@code src[l..r]} into {@code dst[l..r]}; see
+     * {@link MergeSortAnalyzer#sortInto}.
+     */
+    private static void sortInto(double[] src, double[] dst, int l, int r, OpCounter counter) {
+        if (l >= r) {
+            return;
+        }
+
+        int m = l + (r - l) / 2;
+
+        sortInto(dst, src, l, m, counter);
+        sortInto(dst, src, m + 1, r, counter);
+
+        int i = l;
+        int j = m + 1;
+        int k = l;
+        while (i <= m && j <= r) {
+            if (src[i] <= src[j]) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+        while (i <= m) {
+            dst[k++] = src[i++];
+        }
+        while (j <= r) {
+            dst[k++] = src[j++];
+        }
+
+        counter.compare(r - l + 1);
+        counter.move(r - l + 1);
+    }
+
+    /**
+     * Sorts {@code keys} in ascending order and applies the same permutation
+     * to {@code payload}, reporting its work to {@code counter}. The sort is
+     * stable: payloads of equal keys keep their relative order.
+     *
+     * @param keys    the keys to sort in-place
+     * @param payload the values to move with their keys; at least as long as
+     *                {@code keys}
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @throws IllegalArgumentException if {@code payload} is shorter than {@code keys}
+     */
+    public static void mergeSort(int[] keys, int[] payload, OpCounter counter) {
+        int n = keys.length;
+        if (payload.length < n) {
+            throw new IllegalArgumentException(
+                "Payload shorter than keys: " + payload.length + " < " + n
+            );
+        }
+        if (n < 2) {
+            return;
+        }
+
+        int[] keyBuf = KEY_SCRATCH.get();
+        int[] payloadBuf = PAYLOAD_SCRATCH.get();
+        if (keyBuf.length < n) {
+            keyBuf = new int[n];
+            payloadBuf = new int[n];
+            counter.allocate(n, Integer.BYTES);
+            counter.allocate(n, Integer.BYTES);
+            KEY_SCRATCH.set(keyBuf);
+            PAYLOAD_SCRATCH.set(payloadBuf);
+        }
+
+        System.arraycopy(keys, 0, keyBuf, 0, n);
+        System.arraycopy(payload, 0, payloadBuf, 0, n);
+        counter.move(2L * n);
+
+        sortInto(keyBuf, payloadBuf, keys, payload, 0, n - 1, counter);
+    }
+
+    /**
+     * Returns the permutation that sorts {@code keys}: the indices of
+     * {@code keys} ordered by key, equal keys by index. {@code keys} itself
+     * is not modified.
+     *
+     * @param keys    the keys, for example one column of a table
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @return the sorted indices, for example row ids in column order
+     */
+    public static int[] sortedIndex(int[] keys, OpCounter counter) {
+        int n = keys.length;
+        int[] sortedKeys = keys.clone();
+        int[] index = new int[n];
+        counter.allocate(n, Integer.BYTES);
+        counter.allocate(n, Integer.BYTES);
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        counter.move(2L * n);
+
+        mergeSort(sortedKeys, index, counter);
+        return index;
+    }
+
+    /**
+     * Sorts the pairs {@code (srcKeys[i], srcPayload[i])} for {@code i} in
+     * {@code [l..r]} by key into the same range of {@code dstKeys} and
+     * {@code dstPayload}; see {@link MergeSortAnalyzer#sortInto}.
+     */
+    private static void sortInto(int[] srcKeys, int[] srcPayload, int[] dstKeys, int[] dstPayload,
+                                 int l, int r, OpCounter counter) {
+        if (l >= r) {
+            return;
+        }
+
+        int m = l + (r - l) / 2;
+
+        sortInto(dstKeys, dstPayload, srcKeys, srcPayload, l, m, counter);
+        sortInto(dstKeys, dstPayload, srcKeys, srcPayload, m + 1, r, counter);
+
+        int i = l;
+        int j = m + 1;
+        int k = l;
+        while (i <= m && j <= r) {
+            if (srcKeys[i] <= srcKeys[j]) {
+                dstKeys[k] = srcKeys[i];
+                dstPayload[k++] = srcPayload[i++];
+            } else {
+                dstKeys[k] = srcKeys[j];
+                dstPayload[k++] = srcPayload[j++];
+            }
+        }
+        while (i <= m) {
+            dstKeys[k] = srcKeys[i];
+            dstPayload[k++] = srcPayload[i++];
+        }
+        while (j <= r) {
+            dstKeys[k] = srcKeys[j];
+            dstPayload[k++] = srcPayload[j++];
+        }
+
+        counter.compare(r - l + 1);
+        counter.move(2L * (r - l + 1));
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analyzer class for LSD (least-significant digit first) Radix Sort.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Sorts {@code int} arrays in linear time with four 8-bit digit passes</li>
+ *     <li>Skips every pass whose digit is the same for all elements, which
+ *         for the bounded non-negative values produced by
+ *         {@link DataGenerator} removes all passes above the highest digit
+ *         of {@code maxValue}</li>
+ *     <li>Reuses one per-thread histogram and one per-thread buffer across
+ *         runs, so repeated sorts at the same size allocate nothing</li>
+ *     <li>Reports results against Merge Sort through {@link SortHarness}</li>
+ * </ul>
+ */
+public class RadixSortAnalyzer {
+
+    /** Bits per digit. */
+    private static final int DIGIT_BITS = 8;
+
+    /** Number of buckets per digit. */
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    /** Number of digit passes needed to cover 32 bits. */
+    private static final int PASSES = Integer.SIZE / DIGIT_BITS;
+
+    /** Per-thread histograms, one row of {@link #RADIX} counters per pass. */
+    private static final ThreadLocal<int[]> HISTOGRAM =
+            ThreadLocal.withInitial(() -> new int[PASSES * RADIX]);
+
+    /** Per-thread ping-pong buffer; it only ever grows. */
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+
+    /**
+     * Executes an empirical analysis of Radix Sort for the given array size
+     * {@code n}, side by side with Merge Sort on the same inputs.
+     * <p>
+     * It prints the number of operations and wall-clock time for the average,
+     * best and worst cases, and the speedup of Radix Sort over Merge Sort.
+     *
+     * @param n               the array size to sort
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     */
+    public static void analyze(int n, int runs, int rangeMultiplier) {
+        List<AnalysisResult> results = SortHarness.analyze(
+                SortRegistry.get(List.of("merge", "radix")), n, runs, rangeMultiplier);
+
+        SortHarness.print(results.get(0));
+        SortHarness.print(results.get(1));
+        SortHarness.printSpeedup(results.get(1), results.get(0));
+    }
+
+    /**
+     * Sorts {@code arr} with LSD Radix Sort while counting basic operations.
+     * <p>
+     * Negative values are supported by flipping the sign bit of the most
+     * significant digit. Following the conventions of
+     * {@link MergeSortAnalyzer}, operations are counted as:
+     * <ul>
+     *     <li>One per histogram update (one per element and digit, all taken
+     *         in a single read pass)</li>
+     *     <li>One per bucket when turning a histogram into offsets, for
+     *         passes that are actually performed</li>
+     *     <li>One per assignment when scattering into the other buffer, and
+     *         one per assignment if the result has to be copied back</li>
+     * </ul>
+     * There are no comparisons.
+     *
+     * @param arr the array to sort in-place
+     * @return the number of basic operations performed
+     */
+    public static long radixSort(int[] arr) {
+        DetailedCounter counter = new DetailedCounter();
+        radixSort(arr, counter);
+        return counter.ops();
+    }
+
+    /**
+     * Sorts {@code arr} with LSD Radix Sort, reporting its work to
+     * {@code counter}. All counts are derived from {@code n} and the number of
+     * passes performed, so the loops themselves carry no instrumentation.
+     *
+     * @param arr     the array to sort in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     * @see #radixSort(int[])
+     */
+    public static void radixSort(int[] arr, OpCounter counter) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+
+        int[] count = HISTOGRAM.get();
+        Arrays.fill(count, 0);
+
+        // One read pass builds the histograms of all digits
+        for (int i = 0; i < n; i++) {
+            int key = arr[i] ^ Integer.MIN_VALUE; // order negatives first
+            for (int pass = 0; pass < PASSES; pass++) {
+                count[pass * RADIX + ((key >>> (pass * DIGIT_BITS)) & (RADIX - 1))]++;
+            }
+        }
+        counter.move((long) n * PASSES); // histogram updates
+
+        int[] buf = SCRATCH.get();
+        if (buf.length < n) {
+            buf = new int[n];
+            counter.allocate(n, Integer.BYTES);
+            SCRATCH.set(buf);
+        }
+
+        int[] src = arr;
+        int[] dst = buf;
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            int base = pass * RADIX;
+            int shift = pass * DIGIT_BITS;
+
+            // Skip the pass if every element has the same digit here
+            int firstKey = src[0] ^ Integer.MIN_VALUE;
+            if (count[base + ((firstKey >>> shift) & (RADIX - 1))] == n) {
+                continue;
+            }
+
+            // Exclusive prefix sums turn counts into starting offsets
+            int offset = 0;
+            for (int b = base; b < base + RADIX; b++) {
+                int c = count[b];
+                count[b] = offset;
+                offset += c;
+            }
+
+            // Stable scatter by the current digit
+            for (int i = 0; i < n; i++) {
+                int value = src[i];
+                int digit = ((value ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1);
+                dst[count[base + digit]++] = value;
+            }
+            counter.move(RADIX + n); // prefix-sum steps and one assignment per element
+
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        // After an odd number of passes the result is in the buffer
+        if (src != arr) {
+            System.arraycopy(src, 0, arr, 0, n);
+            counter.move(n);
+        }
+    }
+}
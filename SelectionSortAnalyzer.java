@@ -1,3 +1,6 @@
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Analyzer class for the Selection Sort algorithm.
  * <p>
@@ -8,10 +11,18 @@
  *     <li>Measuring wall-clock time using {@code System.nanoTime()}</li>
  *     <li>Printing best, average, and worst-case results</li>
  * </ul>
- * It uses {@link DataGenerator} to generate test arrays.
+ * The measurement itself is done by the shared {@link SortHarness}, which
+ * uses {@link DataGenerator} to generate test arrays.
  */
 public class SelectionSortAnalyzer {
 
+    /**
+     * Engines compared by {@link #analyze}; the first is the baseline.
+     * The vector engine is only present when {@code jdk.incubator.vector}
+     * is available.
+     */
+    private static final List<String> VARIANTS = List.of("selection", "selection-double", "selection-vector");
+
     /**
      * Executes an empirical study of Selection Sort for a single array size {@code n}.
      * <p>
@@ -22,7 +33,9 @@ public class SelectionSortAnalyzer {
      *     <li>Runs Selection Sort on a pre-sorted array (best case).</li>
      *     <li>Runs Selection Sort on a reverse-sorted array (worst case).</li>
      * </ol>
-     * It prints the number of operations and the wall-clock time for each case.
+     * It prints the number of operations and the wall-clock time for each case,
+     * for the classic version and for the double-ended and vector variants,
+     * together with each variant's speedup over the classic version.
      *
      * @param n              the size of arrays to sort
      * @param runs           the number of random arrays to use for average-case
@@ -30,48 +43,21 @@ public class SelectionSortAnalyzer {
      *                        ({@code maxValue = n * rangeMultiplier})
      */
     public static void analyze(int n, int runs, int rangeMultiplier) {
-        int maxValue = n * rangeMultiplier;
-
-        long totalOps = 0;
-        long totalTime = 0;
-
-        // Average case: run on 'runs' unique random arrays
-        for (int i = 0; i < runs; i++) {
-            int[] arr = DataGenerator.generateUniqueRandomArray(n, maxValue);
-
-            long start = System.nanoTime();
-            long ops = selectionSort(arr);
-            long end = System.nanoTime();
-
-            totalOps += ops;
-            totalTime += (end - start);
+        List<String> names = new ArrayList<>();
+        for (String name : VARIANTS) {
+            if (SortRegistry.contains(name)) {
+                names.add(name);
+            }
         }
+        List<AnalysisResult> results = SortHarness.analyze(SortRegistry.get(names), n, runs, rangeMultiplier);
 
-        long avgOps = totalOps / runs;
-        long avgTime = totalTime / runs;
-
-        // Base array for best- and worst-case construction
-        int[] base = DataGenerator.generateUniqueRandomArray(n, maxValue);
-
-        // Best case: already sorted
-        int[] best = DataGenerator.createBestCase(base);
-        long bestStart = System.nanoTime();
-        long bestOps = selectionSort(best);
-        long bestEnd = System.nanoTime();
-
-        // Worst case: reverse-sorted
-        int[] worst = DataGenerator.createWorstCase(base);
-        long worstStart = System.nanoTime();
-        long worstOps = selectionSort(worst);
-        long worstEnd = System.nanoTime();
-
-        System.out.println("Selection Sort (n = " + n + "):");
-        System.out.printf("  Average case: ops = %d, time = %s%n",
-                avgOps, formatTime(avgTime));
-        System.out.printf("  Best case   : ops = %d, time = %s%n",
-                bestOps, formatTime(bestEnd - bestStart));
-        System.out.printf("  Worst case  : ops = %d, time = %s%n",
-                worstOps, formatTime(worstEnd - worstStart));
+        AnalysisResult classic = results.get(0);
+        for (AnalysisResult result : results) {
+            SortHarness.print(result);
+            if (result != classic) {
+                SortHarness.printSpeedup(result, classic);
+            }
+        }
     }
 
     /**
@@ -87,32 +73,120 @@ public class SelectionSortAnalyzer {
      * @return the total number of basic operations performed
      */
     private static long selectionSort(int[] arr) {
-        long comparisons = 0;
-        long assignments = 0;
+        DetailedCounter counter = new DetailedCounter();
+        selectionSort(arr, counter);
+        return counter.ops();
+    }
 
+    /**
+     * Implements the Selection Sort algorithm, reporting comparisons and
+     * assignments to {@code counter}.
+     * <p>
+     * The comparisons of each pass are reported once, after the inner loop,
+     * so the inner loop is identical whether or not operations are counted.
+     *
+     * @param arr     the array to be sorted in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void selectionSort(int[] arr, OpCounter counter) {
+        partialSelectionSort(arr, arr.length - 1, counter);
+    }
+
+    /**
+     * Runs only the first {@code k} passes of Selection Sort, so that
+     * {@code arr[0..k)} holds the {@code k} smallest elements in ascending
+     * order; the rest of the array is left in an unspecified order. This
+     * takes about {@code k * n} comparisons instead of {@code n^2 / 2}.
+     * Operations are counted as in {@link #selectionSort(int[], OpCounter)}.
+     *
+     * @param arr     the array to partially sort in-place
+     * @param k       the number of smallest elements wanted; values above
+     *                {@code n - 1} sort the whole array
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void partialSelectionSort(int[] arr, int k, OpCounter counter) {
         int n = arr.length;
+        int passes = Math.min(k, n - 1);
 
-        for (int i = 0; i < n - 1; i++) {
+        for (int i = 0; i < passes; i++) {
             int minIndex = i;
 
             // Find index of minimum element in the unsorted portion
             for (int j = i + 1; j < n; j++) {
-                comparisons++; // arr[j] < arr[minIndex]
                 if (arr[j] < arr[minIndex]) {
                     minIndex = j;
                 }
             }
+            counter.compare(n - 1 - i); // arr[j] < arr[minIndex] for each j
 
             // Swap minimum into correct position
             if (minIndex != i) {
                 int temp = arr[minIndex];
                 arr[minIndex] = arr[i];
                 arr[i] = temp;
-                assignments += 3;
+                counter.move(3);
             }
         }
+    }
 
-        return comparisons + assignments;
+    /**
+     * Double-ended Selection Sort: every pass finds both the minimum and the
+     * maximum of the unsorted middle {@code arr[lo..hi]} and swaps them to
+     * its two ends, so only about {@code n / 2} passes are needed.
+     * <p>
+     * The running minimum and maximum are updated with selects rather than
+     * {@code if} statements, so the JIT can compile the scan to conditional
+     * moves instead of data-dependent branches. Each scanned element costs
+     * two comparisons (against the minimum and the maximum), so the
+     * comparison count stays close to the classic version; the gain is in
+     * the number of passes over the array and in the branch-free loop body.
+     * Comparisons are reported once per pass and three moves per swap.
+     *
+     * @param arr     the array to be sorted in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void doubleEndedSelectionSort(int[] arr, OpCounter counter) {
+        int lo = 0;
+        int hi = arr.length - 1;
+
+        while (lo < hi) {
+            int min = arr[lo];
+            int max = min;
+            int minIndex = lo;
+            int maxIndex = lo;
+
+            for (int j = lo + 1; j <= hi; j++) {
+                int v = arr[j];
+                boolean less = v < min;
+                boolean greater = v > max;
+                minIndex = less ? j : minIndex;
+                min = less ? v : min;
+                maxIndex = greater ? j : maxIndex;
+                max = greater ? v : max;
+            }
+            counter.compare(2L * (hi - lo)); // v < min and v > max for each j
+
+            if (minIndex != lo) {
+                arr[minIndex] = arr[lo];
+                arr[lo] = min;
+                counter.move(3);
+                // The maximum may just have been moved out of lo
+                if (maxIndex == lo) {
+                    maxIndex = minIndex;
+                }
+            }
+            if (maxIndex != hi) {
+                arr[maxIndex] = arr[hi];
+                arr[hi] = max;
+                counter.move(3);
+            }
+
+            lo++;
+            hi--;
+        }
     }
 
     /**
@@ -125,18 +199,4 @@ public class SelectionSortAnalyzer {
     public static long demoSelectionSort(int[] arr) {
         return selectionSort(arr);
     }
-
-    /**
-     * Utility to convert a time duration in nanoseconds to a human-readable string.
-     *
-     * @param nanos the time in nanoseconds
-     * @return a formatted string with appropriate units (ns, µs, ms, or s)
-     */
-    private static String formatTime(long nanos) {
-        if (nanos < 1_000) return nanos + " ns";
-        if (nanos < 1_000_000) return String.format("%.3f µs", nanos / 1_000.0);
-        if (nanos < 1_000_000_000) return String.format("%.3f ms", nanos / 1_000_000.0);
-        return String.format("%.3f s", nanos / 1_000_000_000.0);
-    }
 }
-
@@ -0,0 +1,68 @@
+/**
+ * Common interface for the sorting engines measured by {@link SortHarness}.
+ * <p>
+ * Engines are registered in {@link SortRegistry} under a short
+ * command-line name and can then be selected from {@link ExperimentRunner}.
+ */
+public interface SortAlgorithm {
+
+    /**
+     * @return the short name used on the command line, e.g. {@code "merge"}
+     */
+    String name();
+
+    /**
+     * @return the human-readable name used in reports, e.g. {@code "Merge Sort"}
+     */
+    String displayName();
+
+    /**
+     * @return the theoretical time complexity, e.g. {@code "O(n log n)"}
+     */
+    String complexity();
+
+    /**
+     * Sorts {@code arr} in-place in non-decreasing order, recording the
+     * work performed. This is the detailed path used for operation counts.
+     *
+     * @param arr the array to sort
+     * @return statistics describing the work performed
+     */
+    SortStats sort(int[] arr);
+
+    /**
+     * Sorts {@code arr} in-place in non-decreasing order without recording
+     * anything. This is the path used for timing, so that wall-clock numbers
+     * do not include the cost of counting.
+     *
+     * @param arr the array to sort
+     */
+    void sortUncounted(int[] arr);
+
+    /**
+     * Sorts a private copy of {@code input} on the uncounted path and
+     * returns the elapsed time and JVM activity. Only the sort itself is
+     * measured: engines that sort another representation of the values
+     * override this to build it before starting the clock.
+     *
+     * @param input the array to sort a copy of (not modified)
+     * @return the elapsed time and JVM activity of the sort
+     */
+    default Timing time(int[] input) {
+        int[] arr = input.clone();
+        JvmStats before = JvmStats.snapshot();
+        long start = System.nanoTime();
+        sortUncounted(arr);
+        long end = System.nanoTime();
+        return new Timing(end - start, JvmStats.since(before));
+    }
+
+    /**
+     * The measurements of one uncounted sort.
+     *
+     * @param nanos the elapsed time in nanoseconds
+     * @param jvm   the JVM activity during the sort
+     */
+    record Timing(long nanos, JvmStats jvm) {
+    }
+}
@@ -0,0 +1,485 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Shared measurement harness for {@link SortAlgorithm} engines.
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Runs one or more engines on the same unique random arrays
+ *         (average case), a sorted array (best case) and a reverse-sorted
+ *         array (worst case)</li>
+ *     <li>Measures wall-clock time using {@code System.nanoTime()} on the
+ *         uninstrumented path of each engine, and operation counts on a
+ *         separate instrumented run of the same input</li>
+ *     <li>Prints the results in a uniform format</li>
+ * </ul>
+ * Every engine sorts its own copy of each input, so engines analyzed
+ * together are compared on identical data.
+ */
+public final class SortHarness {
+
+    /** Corpus inputs are loaded from, or {@code null} to always generate them. */
+    private static volatile InputCorpus corpus;
+
+    /** Sampler timing each case, or {@code null} to time each input once. */
+    private static volatile AdaptiveSampler sampler;
+
+    private SortHarness() {
+    }
+
+    /**
+     * Analyzes a single engine at array size {@code n}.
+     *
+     * @param algorithm       the engine to measure
+     * @param n               the array size to sort
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     * @return the measured results
+     */
+    public static AnalysisResult analyze(SortAlgorithm algorithm, int n, int runs, int rangeMultiplier) {
+        return analyze(List.of(algorithm), n, runs, rangeMultiplier).get(0);
+    }
+
+    /**
+     * Analyzes several engines at array size {@code n} on identical inputs.
+     * <p>
+     * For each size, this method:
+     * <ol>
+     *     <li>Runs every engine {@code runs} times on unique random arrays
+     *         (average-case measurement).</li>
+     *     <li>Runs every engine on a sorted array (best case).</li>
+     *     <li>Runs every engine on a reverse-sorted array (worst case).</li>
+     * </ol>
+     *
+     * If a sampler is in use (see {@link #useSampler}), each engine is
+     * instead timed on each case until the sampler stops, cycling through
+     * the {@code runs} random arrays for the average case.
+     *
+     * @param algorithms      the engines to measure
+     * @param n               the array size to sort
+     * @param runs            the number of random arrays for average-case testing
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     * @return one result per engine, in the given order
+     */
+    public static List<AnalysisResult> analyze(List<SortAlgorithm> algorithms, int n, int runs,
+                                               int rangeMultiplier) {
+        int maxValue = n * rangeMultiplier;
+        int count = algorithms.size();
+
+        AdaptiveSampler adaptive = sampler;
+        if (adaptive != null) {
+            int[][] random = new int[runs][];
+            for (int i = 0; i < runs; i++) {
+                random[i] = input(n, maxValue, i, runs);
+            }
+            int[][] best = {input(n, maxValue, runs, runs)};
+            int[][] worst = {input(n, maxValue, runs + 1, runs)};
+
+            List<AnalysisResult> results = new ArrayList<>();
+            for (SortAlgorithm algorithm : algorithms) {
+                results.add(new AnalysisResult(algorithm, n, sample(adaptive, algorithm, random),
+                        sample(adaptive, algorithm, best), sample(adaptive, algorithm, worst)));
+            }
+            return results;
+        }
+
+        SortStats[] totalStats = new SortStats[count];
+        long[] totalTime = new long[count];
+        JvmStats[] totalJvm = new JvmStats[count];
+        Arrays.fill(totalStats, SortStats.ZERO);
+        Arrays.fill(totalJvm, JvmStats.ZERO);
+
+        // Average case: runs on random unique arrays
+        for (int i = 0; i < runs; i++) {
+            int[] arr = input(n, maxValue, i, runs);
+            for (int a = 0; a < count; a++) {
+                AnalysisResult.Case run = measure(algorithms.get(a), arr);
+                totalStats[a] = totalStats[a].plus(run.stats());
+                totalTime[a] += run.nanos();
+                totalJvm[a] = totalJvm[a].plus(run.jvm());
+            }
+        }
+
+        // Best case: sorted
+        int[] best = input(n, maxValue, runs, runs);
+
+        // Worst case: reverse-sorted
+        int[] worst = input(n, maxValue, runs + 1, runs);
+
+        List<AnalysisResult> results = new ArrayList<>();
+        for (int a = 0; a < count; a++) {
+            SortAlgorithm algorithm = algorithms.get(a);
+            AnalysisResult.Case average = new AnalysisResult.Case(
+                    totalStats[a].dividedBy(runs), totalTime[a] / runs, totalJvm[a]);
+            results.add(new AnalysisResult(algorithm, n, average,
+                    measure(algorithm, best), measure(algorithm, worst)));
+        }
+        return results;
+    }
+
+    /**
+     * Analyzes several engines on {@code runs} inputs of one workload.
+     *
+     * @param algorithms      the engines to measure
+     * @param workload        the shape of the inputs
+     * @param n               the array size to sort
+     * @param runs            the number of inputs to average over
+     * @param rangeMultiplier multiplier to determine maximum value
+     *                        ({@code maxValue = n * rangeMultiplier})
+     * @return the average case of each engine, in the given order
+     */
+    public static List<AnalysisResult.Case> analyze(List<SortAlgorithm> algorithms, Workload workload,
+                                                    int n, int runs, int rangeMultiplier) {
+        int maxValue = n * rangeMultiplier;
+        int count = algorithms.size();
+
+        AdaptiveSampler adaptive = sampler;
+        if (adaptive != null) {
+            int[][] inputs = new int[runs][];
+            for (int i = 0; i < runs; i++) {
+                inputs[i] = input(workload, n, maxValue, i);
+            }
+            List<AnalysisResult.Case> results = new ArrayList<>();
+            for (SortAlgorithm algorithm : algorithms) {
+                results.add(sample(adaptive, algorithm, inputs));
+            }
+            return results;
+        }
+
+        SortStats[] totalStats = new SortStats[count];
+        long[] totalTime = new long[count];
+        JvmStats[] totalJvm = new JvmStats[count];
+        Arrays.fill(totalStats, SortStats.ZERO);
+        Arrays.fill(totalJvm, JvmStats.ZERO);
+
+        for (int i = 0; i < runs; i++) {
+            int[] arr = input(workload, n, maxValue, i);
+            for (int a = 0; a < count; a++) {
+                AnalysisResult.Case run = measure(algorithms.get(a), arr);
+                totalStats[a] = totalStats[a].plus(run.stats());
+                totalTime[a] += run.nanos();
+                totalJvm[a] = totalJvm[a].plus(run.jvm());
+            }
+        }
+
+        List<AnalysisResult.Case> results = new ArrayList<>();
+        for (int a = 0; a < count; a++) {
+            results.add(new AnalysisResult.Case(totalStats[a].dividedBy(runs), totalTime[a] / runs, totalJvm[a]));
+        }
+        return results;
+    }
+
+    /**
+     * Returns input {@code index} of the experiment for size {@code n}:
+     * indices below {@code runs} are the random average-case inputs,
+     * {@code runs} is the best case and {@code runs + 1} the worst case.
+     * <p>
+     * Each input draws from its own stream, keyed by {@code n},
+     * {@code maxValue} and {@code index}, so for a given
+     * {@link DataGenerator#setSeed(long) seed} it is the same whichever
+     * thread generates it and in whatever order. If a corpus is in use (see
+     * {@link #useCorpus}), the input is loaded from it, and generated and
+     * stored only on a miss.
+     *
+     * @param n        the array size
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @param index    the input index, from {@code 0} to {@code runs + 1}
+     * @param runs     the number of average-case inputs
+     * @return the input array
+     */
+    static int[] input(int n, int maxValue, int index, int runs) {
+        Workload workload = index < runs ? Workload.RANDOM
+                : (index == runs ? Workload.SORTED : Workload.REVERSED);
+        return generate(workload, workload.id(), DataGenerator.stream(n, maxValue, index), n, maxValue, index);
+    }
+
+    /**
+     * Returns input {@code index} of {@code workload} for size {@code n},
+     * from the corpus if one is in use.
+     * <p>
+     * The stream is also keyed by the workload, so workloads never share
+     * inputs, and neither do a workload experiment and the standard cases:
+     * its {@link Workload#RANDOM} inputs are not the average-case inputs
+     * over again.
+     *
+     * @param workload the shape of the input
+     * @param n        the array size
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @param index    the input index
+     * @return the input array
+     */
+    static int[] input(Workload workload, int n, int maxValue, int index) {
+        return generate(workload, "workload-" + workload.id(),
+                DataGenerator.stream(workload.ordinal(), n, maxValue, index), n, maxValue, index);
+    }
+
+    /**
+     * Generates an input from {@code random}, or loads it from the corpus
+     * as {@code distribution} if one is in use.
+     */
+    private static int[] generate(Workload workload, String distribution, SplittableRandom random,
+                                  int n, int maxValue, int index) {
+        InputCorpus cache = corpus;
+        if (cache == null) {
+            return workload.generate(random, n, maxValue);
+        }
+        InputCorpus.Key key = new InputCorpus.Key(distribution, n, maxValue, DataGenerator.getSeed(), index);
+        return cache.get(key, () -> workload.generate(random, n, maxValue));
+    }
+
+    /**
+     * Makes {@link #analyze} and {@link ExperimentScheduler} load their
+     * inputs from {@code corpus}, or generate them afresh if {@code null}.
+     *
+     * @param corpus the corpus to use, or {@code null} for none
+     */
+    public static void useCorpus(InputCorpus corpus) {
+        SortHarness.corpus = corpus;
+    }
+
+    /**
+     * Makes {@link #analyze} time every case with {@code sampler} instead
+     * of once per input, or restores that if {@code null}.
+     *
+     * @param sampler the sampler to use, or {@code null} for none
+     */
+    public static void useSampler(AdaptiveSampler sampler) {
+        SortHarness.sampler = sampler;
+    }
+
+    /**
+     * Counts the operations of {@code algorithm} on {@code inputs}, then
+     * times it with {@code sampler}, cycling through them.
+     * <p>
+     * The instrumented run deoptimizes the engine's uncounted path, which
+     * then runs several times slower until the JIT compiles it again.
+     * Counting first keeps that slowdown inside this case's warmup instead
+     * of at the start of the next case. Inputs are counted until one has
+     * been counted and the sampler's per-cell budget has passed, so slow
+     * engines count fewer of them.
+     *
+     * @param sampler   the sampler deciding how many times to run
+     * @param algorithm the engine to run
+     * @param inputs    the inputs (not modified)
+     * @return the mean time, its distribution and the average operation counts
+     */
+    static AnalysisResult.Case sample(AdaptiveSampler sampler, SortAlgorithm algorithm, int[][] inputs) {
+        long deadline = System.nanoTime() + sampler.budgetNanos();
+        int counted = 0;
+        SortStats stats = SortStats.ZERO;
+        do {
+            stats = stats.plus(algorithm.sort(inputs[counted++].clone()));
+        } while (counted < inputs.length && System.nanoTime() < deadline);
+
+        AdaptiveSampler.Summary summary = sampler.sample(i -> time(algorithm, inputs[i % inputs.length]));
+        return new AnalysisResult.Case(stats.dividedBy(counted), Math.round(summary.mean()), summary.jvm(),
+                summary);
+    }
+
+    /**
+     * Measures {@code algorithm} on several inputs: counts the operations on
+     * every input first, then times every input, with the sampler if one is
+     * in use (see {@link #useSampler}) and otherwise once each.
+     * <p>
+     * Counting all the inputs before timing any, as {@link #sample} does,
+     * keeps the deoptimization the instrumented path causes out of all but
+     * the first timed runs.
+     *
+     * @param algorithm the engine to run
+     * @param inputs    the inputs (not modified)
+     * @return the average operation counts and time, and the total JVM
+     *         activity of the timed runs
+     */
+    static AnalysisResult.Case measure(SortAlgorithm algorithm, int[][] inputs) {
+        AdaptiveSampler adaptive = sampler;
+        if (adaptive != null) {
+            return sample(adaptive, algorithm, inputs);
+        }
+
+        SortStats stats = SortStats.ZERO;
+        for (int[] input : inputs) {
+            stats = stats.plus(algorithm.sort(input.clone()));
+        }
+        long nanos = 0;
+        JvmStats jvm = JvmStats.ZERO;
+        for (int[] input : inputs) {
+            SortAlgorithm.Timing timing = time(algorithm, input);
+            nanos += timing.nanos();
+            jvm = jvm.plus(timing.jvm());
+        }
+        return new AnalysisResult.Case(stats.dividedBy(inputs.length), nanos / inputs.length, jvm);
+    }
+
+    /**
+     * Measures one input: collects operation counts from the instrumented
+     * path on one copy of {@code input}, then times the uninstrumented path
+     * on another, recording the JVM activity during it, so neither
+     * measurement affects the other.
+     * <p>
+     * Counting first, as {@link #sample} does, means a scratch buffer that
+     * an engine allocates on first use, or grows for a larger {@code n}, is
+     * recorded in the operation counts instead of being allocated unseen
+     * during the timed run.
+     *
+     * @param algorithm the engine to run
+     * @param input     the input array (not modified)
+     * @return the operation counts, elapsed time and JVM activity of the sort
+     */
+    static AnalysisResult.Case measure(SortAlgorithm algorithm, int[] input) {
+        SortStats stats = algorithm.sort(input.clone());
+        SortAlgorithm.Timing timing = time(algorithm, input);
+        return new AnalysisResult.Case(stats, timing.nanos(), timing.jvm());
+    }
+
+    /**
+     * Times the uninstrumented path of {@code algorithm} on a copy of
+     * {@code input}.
+     *
+     * @param algorithm the engine to run
+     * @param input     the input array (not modified)
+     * @return the elapsed time and JVM activity
+     * @see SortAlgorithm#time(int[])
+     */
+    static SortAlgorithm.Timing time(SortAlgorithm algorithm, int[] input) {
+        return algorithm.time(input);
+    }
+
+    /**
+     * Prints the operation counts and times of one result.
+     *
+     * @param result the result to print
+     */
+    public static void print(AnalysisResult result) {
+        System.out.println(result.algorithm().displayName() + " (n = " + result.n() + "):");
+        printCase("Average case", result.average());
+        printCase("Best case   ", result.best());
+        printCase("Worst case  ", result.worst());
+    }
+
+    /**
+     * Prints the results of one workload, one line per engine, with each
+     * engine's speedup relative to the baseline if one is given.
+     *
+     * @param workload      the workload the engines ran on
+     * @param n             the array size
+     * @param algorithms    the engines, in the order of {@code results}
+     * @param results       the average case of each engine
+     * @param baselineIndex index of the baseline engine, or {@code -1}
+     */
+    public static void printWorkload(Workload workload, int n, List<SortAlgorithm> algorithms,
+                                     List<AnalysisResult.Case> results, int baselineIndex) {
+        System.out.println("Workload " + workload.id() + " (" + workload.description() + ", n = " + n + "):");
+        for (int a = 0; a < algorithms.size(); a++) {
+            AnalysisResult.Case c = results.get(a);
+            System.out.printf("  %-16s: ops = %d, time = %s, %s", algorithms.get(a).name(), c.ops(),
+                    formatTime(c.nanos()), formatJvm(c.jvm()));
+            if (c.samples() != null) {
+                System.out.printf(", median = %s (%d samples, ci = ±%.1f%%)", formatTime(c.samples().median()),
+                        c.samples().samples(), 100 * c.samples().relativeCi());
+            }
+            if (baselineIndex >= 0 && a != baselineIndex) {
+                System.out.printf(", speedup = %.2fx", speedup(results.get(baselineIndex), c));
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Prints one case: operation count and time on the first line, the
+     * detailed counts on the second and the JVM activity on the third, and
+     * the distribution of the times on a fourth if the case was sampled.
+     *
+     * @param label the case label
+     * @param c     the case to print
+     */
+    private static void printCase(String label, AnalysisResult.Case c) {
+        SortStats stats = c.stats();
+        System.out.printf("  %s: ops = %d, time = %s%n", label, c.ops(), formatTime(c.nanos()));
+        // A scratch buffer allocated once and reused by later runs averages below one per run
+        String allocations = stats.allocations() == 0 && stats.bytesAllocated() > 0
+                ? "< 1" : Long.toString(stats.allocations());
+        System.out.printf("      comparisons = %d, moves = %d, allocations = %s (%s), touched = %s%n",
+                stats.comparisons(), stats.moves(), allocations,
+                formatBytes(stats.bytesAllocated()), formatBytes(stats.bytesTouched()));
+        System.out.printf("      %s over %d timed run%s%n", formatJvm(c.jvm()), c.jvm().runs(),
+                c.jvm().runs() == 1 ? "" : "s");
+        AdaptiveSampler.Summary samples = c.samples();
+        if (samples != null) {
+            System.out.printf("      samples = %d (+%d warmup), ci = ±%.1f%%, median = %s, p90 = %s, "
+                            + "p99 = %s, sd = %s%n",
+                    samples.samples(), samples.warmup(), 100 * samples.relativeCi(),
+                    formatTime(samples.median()), formatTime(samples.p90()), formatTime(samples.p99()),
+                    formatTime(Math.round(samples.stddev())));
+        }
+    }
+
+    /**
+     * Formats JVM activity: heap bytes allocated per run, then garbage
+     * collections and JIT compilation time over all runs.
+     *
+     * @param jvm the activity to format
+     * @return a formatted string
+     */
+    public static String formatJvm(JvmStats jvm) {
+        String heap = JvmStats.isAllocationSupported() ? formatBytes(jvm.allocatedBytesPerRun()) : "n/a";
+        return String.format("heap = %s/run, gc = %d (%d ms), jit = %d ms",
+                heap, jvm.gcCount(), jvm.gcMillis(), jvm.jitMillis());
+    }
+
+    /**
+     * Prints the speedup of {@code result} relative to {@code baseline} for
+     * each case.
+     *
+     * @param result   the result to compare
+     * @param baseline the result to compare against
+     */
+    public static void printSpeedup(AnalysisResult result, AnalysisResult baseline) {
+        System.out.printf("  Speedup vs %s: average = %.2fx, best = %.2fx, worst = %.2fx%n",
+                baseline.algorithm().displayName(),
+                speedup(baseline.average(), result.average()),
+                speedup(baseline.best(), result.best()),
+                speedup(baseline.worst(), result.worst()));
+    }
+
+    /**
+     * Computes the speedup of a measurement relative to a baseline.
+     *
+     * @param baseline the reference measurement
+     * @param measured the measurement to compare
+     * @return {@code baseline time / measured time}
+     */
+    private static double speedup(AnalysisResult.Case baseline, AnalysisResult.Case measured) {
+        return (double) baseline.nanos() / Math.max(1, measured.nanos());
+    }
+
+    /**
+     * Utility to convert a byte count to a human-readable string.
+     *
+     * @param bytes the number of bytes
+     * @return a formatted string with appropriate units (B, KiB, MiB or GiB)
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1L << 10) return bytes + " B";
+        if (bytes < 1L << 20) return String.format("%.1f KiB", bytes / 1024.0);
+        if (bytes < 1L << 30) return String.format("%.1f MiB", bytes / (1024.0 * 1024));
+        return String.format("%.1f GiB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    /**
+     * Utility to convert a time duration in nanoseconds to a human-readable string.
+     *
+     * @param nanos the time in nanoseconds
+     * @return a formatted string with appropriate units (ns, µs, ms, or s)
+     */
+    public static String formatTime(long nanos) {
+        if (nanos < 1_000) return nanos + " ns";
+        if (nanos < 1_000_000) return String.format("%.3f µs", nanos / 1_000.0);
+        if (nanos < 1_000_000_000) return String.format("%.3f ms", nanos / 1_000_000.0);
+        return String.format("%.3f s", nanos / 1_000_000_000.0);
+    }
+}
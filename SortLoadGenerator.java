@@ -0,0 +1,278 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator for {@link SortService}: measures request latency and
+ * throughput on localhost as the number of concurrent clients rises.
+ * <p>
+ * For each concurrency level, that many virtual-thread clients send sort
+ * requests back to back for a fixed duration. Request sizes follow a fixed
+ * mix: mostly small arrays that the service batches, some medium ones and
+ * a few large ones that take the parallel path. Every response is checked
+ * to be the sorted request. For each level it prints the throughput, the
+ * p50, p99 and p99.9 latencies, and the mean batch size reported by the
+ * service.
+ */
+public final class SortLoadGenerator {
+
+    /** Request sizes and their weights, in percent. */
+    private static final int[] SIZES = {100, 1_000, 20_000, 200_000};
+    private static final int[] WEIGHTS = {80, 15, 4, 1};
+
+    private final HttpClient client;
+    private final URI sortUri;
+    private final URI statsUri;
+
+    /**
+     * @param baseUri the service address, for example {@code http://localhost:8330}
+     */
+    public SortLoadGenerator(URI baseUri) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.sortUri = baseUri.resolve("/sort");
+        this.statsUri = baseUri.resolve("/stats");
+    }
+
+    /**
+     * Runs the load test.
+     * <p>
+     * Usage: {@code java SortLoadGenerator [--url=URL | --batchers=B]
+     * [--seconds=S] [--concurrency=C,...]}
+     * <ul>
+     *     <li>{@code --url=URL}: an already running service; by default one
+     *         is started in this process on a free port</li>
+     *     <li>{@code --batchers=B}: the number of batching threads of the
+     *         service started in this process (default one per available
+     *         processor)</li>
+     *     <li>{@code --seconds=S}: duration of each concurrency level
+     *         (default 3), after a one-second warmup at the first level</li>
+     *     <li>{@code --concurrency=C,...}: the numbers of concurrent clients
+     *         (default 1,4,16,64,256)</li>
+     * </ul>
+     *
+     * @param args command-line arguments as described above
+     * @throws IOException          if the embedded service cannot start or a
+     *                              request fails
+     * @throws InterruptedException if interrupted while waiting for clients
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        URI url = null;
+        double seconds = 3;
+        int batchers = Runtime.getRuntime().availableProcessors();
+        int[] levels = {1, 4, 16, 64, 256};
+        for (String arg : args) {
+            if (arg.startsWith("--url=")) {
+                url = URI.create(arg.substring("--url=".length()));
+            } else if (arg.startsWith("--batchers=")) {
+                batchers = Integer.parseInt(arg.substring("--batchers=".length()));
+            } else if (arg.startsWith("--seconds=")) {
+                seconds = Double.parseDouble(arg.substring("--seconds=".length()));
+            } else if (arg.startsWith("--concurrency=")) {
+                levels = Arrays.stream(arg.substring("--concurrency=".length()).split(","))
+                        .mapToInt(level -> Integer.parseInt(level.trim()))
+                        .toArray();
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        SortService embedded = null;
+        if (url == null) {
+            embedded = new SortService(0, batchers);
+            url = URI.create("http://localhost:" + embedded.port());
+        }
+        try {
+            SortLoadGenerator generator = new SortLoadGenerator(url);
+            System.out.println("Sort service load test against " + url + " (" + generator.stats().get("batchers")
+                    + " batchers), " + seconds + " s per level");
+            System.out.println("Request sizes " + Arrays.toString(SIZES) + " with weights "
+                    + Arrays.toString(WEIGHTS) + " %");
+
+            generator.run(levels[0], (long) 1e9); // warmup, not reported
+            System.out.printf("  %-8s %-10s %-12s %-12s %-12s %-12s %s%n",
+                    "clients", "requests", "req/s", "p50", "p99", "p99.9", "mean batch");
+            for (int level : levels) {
+                generator.run(level, (long) (seconds * 1e9)).print();
+            }
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    /**
+     * Runs {@code clients} concurrent clients for {@code nanos} nanoseconds.
+     *
+     * @param clients the number of concurrent clients
+     * @param nanos   the duration
+     * @return the latencies and throughput measured
+     * @throws IOException          if a request fails or a response is not
+     *                              the sorted request
+     * @throws InterruptedException if interrupted while waiting for clients
+     */
+    public Level run(int clients, long nanos) throws IOException, InterruptedException {
+        Map<String, Long> before = stats();
+        long start = System.nanoTime();
+        long deadline = start + nanos;
+
+        List<Future<long[]>> results = new ArrayList<>();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                SplittableRandom random = DataGenerator.stream(clients, c);
+                results.add(threads.submit(() -> runClient(random, deadline)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] latencies = new long[0];
+        for (Future<long[]> result : results) {
+            try {
+                long[] client = result.get();
+                int from = latencies.length;
+                latencies = Arrays.copyOf(latencies, from + client.length);
+                System.arraycopy(client, 0, latencies, from, client.length);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        Arrays.sort(latencies);
+
+        Map<String, Long> after = stats();
+        long batches = after.get("batches") - before.get("batches");
+        long batched = after.get("batched") - before.get("batched");
+        return new Level(clients, latencies, elapsed, batches == 0 ? 0 : (double) batched / batches);
+    }
+
+    /**
+     * Sends requests until {@code deadline}, returning their latencies.
+     */
+    private long[] runClient(SplittableRandom random, long deadline) throws IOException, InterruptedException {
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            int n = pickSize(random);
+            int[] values = DataGenerator.generateUniqueRandomArray(random, n, 4 * n);
+            ByteBuffer body = ByteBuffer.allocate(n * Integer.BYTES).order(ExternalMergeSort.BYTE_ORDER);
+            body.asIntBuffer().put(values);
+
+            HttpRequest request = HttpRequest.newBuilder(sortUri)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.array()))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long latency = System.nanoTime() - start;
+
+            check(response, values);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, 2 * count);
+            }
+            latencies[count++] = latency;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static int pickSize(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < SIZES.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) {
+                return SIZES[i];
+            }
+        }
+        return SIZES[SIZES.length - 1];
+    }
+
+    /**
+     * Fails unless {@code response} holds {@code values} sorted.
+     */
+    private static void check(HttpResponse<byte[]> response, int[] values) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " from " + response.uri() + ": "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        IntBuffer sorted = ByteBuffer.wrap(response.body()).order(ExternalMergeSort.BYTE_ORDER).asIntBuffer();
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        if (sorted.remaining() != expected.length || !IntBuffer.wrap(expected).equals(sorted)) {
+            throw new IOException("Response from " + response.uri() + " is not the sorted request");
+        }
+    }
+
+    /**
+     * Reads the service counters.
+     */
+    private Map<String, Long> stats() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(statsUri).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Map<String, Long> stats = new HashMap<>();
+        for (String line : response.body().split("\n")) {
+            int eq = line.indexOf('=');
+            if (eq > 0) {
+                stats.put(line.substring(0, eq), Long.parseLong(line.substring(eq + 1)));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * The measurements of one concurrency level.
+     *
+     * @param clients   the number of concurrent clients
+     * @param latencies the request latencies in nanoseconds, ascending
+     * @param nanos     the duration of the level
+     * @param meanBatch the mean number of small requests per batch
+     */
+    public record Level(int clients, long[] latencies, long nanos, double meanBatch) {
+
+        /**
+         * @param p the percentile, from 0 to 100
+         * @return the latency at percentile {@code p} (nearest rank), in nanoseconds
+         */
+        public long percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100 * latencies.length);
+            return latencies[Math.max(0, Math.min(latencies.length, rank) - 1)];
+        }
+
+        /**
+         * @return completed requests per second
+         */
+        public double throughput() {
+            return latencies.length / (nanos / 1e9);
+        }
+
+        /**
+         * Prints one table row.
+         */
+        void print() {
+            System.out.printf("  %-8d %-10d %-12.1f %-12s %-12s %-12s %.2f%n",
+                    clients, latencies.length, throughput(),
+                    SortHarness.formatTime(percentile(50)), SortHarness.formatTime(percentile(99)),
+                    SortHarness.formatTime(percentile(99.9)), meanBatch);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Registry of the available {@link SortAlgorithm} engines, keyed by their
+ * command-line name.
+ * <p>
+ * The built-in engines are registered when the class is loaded, in the order
+ * they are listed in reports. New engines only need a single
+ * {@link #register} call here to become selectable from
+ * {@link ExperimentRunner}.
+ */
+public final class SortRegistry {
+
+    /** Registered engines in registration order. */
+    private static final Map<String, SortAlgorithm> ENGINES = new LinkedHashMap<>();
+
+    static {
+        register("selection", "Selection Sort", "O(n^2)",
+                SelectionSortAnalyzer::selectionSort);
+        register("selection-double", "Selection Sort, double-ended and branchless", "O(n^2)",
+                SelectionSortAnalyzer::doubleEndedSelectionSort);
+        if (VectorSelectionSort.isSupported()) {
+            register("selection-vector", "Selection Sort, SIMD min-scan", "O(n^2)",
+                    VectorSelectionSort::selectionSort);
+        }
+        register("merge", "Merge Sort", "O(n log n)",
+                MergeSortAnalyzer::mergeSort);
+        register("merge-buffered", "Merge Sort, single scratch buffer", "O(n log n)",
+                MergeSortAnalyzer::bufferedMergeSort);
+        register("merge-bottomup", "Bottom-up Merge Sort, insertion-sorted blocks", "O(n log n)",
+                MergeSortAnalyzer::bottomUpMergeSort);
+        register("merge-inplace", "Merge Sort, in place with a sqrt(n) buffer", "O(n log^2 n)",
+                InPlaceMergeSortAnalyzer::inPlaceMergeSort);
+        register("merge-network", "Bottom-up Merge Sort, SIMD sorting-network leaves", "O(n log n)",
+                NetworkMergeSortAnalyzer::networkMergeSort);
+        register("merge-parallel", "Parallel Merge Sort", "O(n log n)",
+                ParallelMergeSort::parallelMergeSort);
+        register("merge-long", "Merge Sort, long[]", "O(n log n)",
+                arr -> {
+                    long[] values = new long[arr.length];
+                    for (int i = 0; i < arr.length; i++) {
+                        values[i] = (long) arr[i] << 32;
+                    }
+                    return values;
+                },
+                PrimitiveMergeSortAnalyzer::mergeSort,
+                (values, arr) -> {
+                    for (int i = 0; i < arr.length; i++) {
+                        arr[i] = (int) (values[i] >> 32);
+                    }
+                });
+        register("merge-double", "Merge Sort, double[]", "O(n log n)",
+                arr -> {
+                    double[] values = new double[arr.length];
+                    for (int i = 0; i < arr.length; i++) {
+                        values[i] = arr[i];
+                    }
+                    return values;
+                },
+                PrimitiveMergeSortAnalyzer::mergeSort,
+                (values, arr) -> {
+                    for (int i = 0; i < arr.length; i++) {
+                        arr[i] = (int) values[i];
+                    }
+                });
+        register("merge-keyindex", "Merge Sort, int keys with int payload", "O(n log n)",
+                arr -> {
+                    int[] payload = new int[arr.length];
+                    for (int i = 0; i < arr.length; i++) {
+                        payload[i] = i;
+                    }
+                    return new int[][] {arr.clone(), payload};
+                },
+                (pairs, counter) -> PrimitiveMergeSortAnalyzer.mergeSort(pairs[0], pairs[1], counter),
+                (pairs, arr) -> System.arraycopy(pairs[0], 0, arr, 0, arr.length));
+        register("radix", "LSD Radix Sort", "O(n)",
+                RadixSortAnalyzer::radixSort);
+        register("natural", "Natural Merge Sort (adaptive)", "O(n) to O(n log n)",
+                NaturalMergeSortAnalyzer::naturalMergeSort);
+    }
+
+    private SortRegistry() {
+    }
+
+    /**
+     * Registers an engine.
+     *
+     * @param algorithm the engine to register
+     * @throws IllegalArgumentException if an engine with the same name exists
+     */
+    public static synchronized void register(SortAlgorithm algorithm) {
+        if (ENGINES.containsKey(algorithm.name())) {
+            throw new IllegalArgumentException("Duplicate sort engine: " + algorithm.name());
+        }
+        ENGINES.put(algorithm.name(), algorithm);
+    }
+
+    /**
+     * Registers an engine backed by a function that sorts an array in-place
+     * and reports its work to an {@link OpCounter}.
+     *
+     * @param name        the command-line name
+     * @param displayName the name used in reports
+     * @param complexity  the theoretical time complexity
+     * @param sorter      sorts its first argument, reporting to the second
+     * @throws IllegalArgumentException if an engine with the same name exists
+     */
+    public static void register(String name, String displayName, String complexity,
+                                BiConsumer<int[], OpCounter> sorter) {
+        register(engine(name, displayName, complexity, sorter));
+    }
+
+    /**
+     * Creates an engine backed by a function that sorts an array in-place
+     * and reports its work to an {@link OpCounter}, without registering it;
+     * for analyzers that measure variants of a method through
+     * {@link SortHarness}.
+     *
+     * @param name        the command-line name
+     * @param displayName the name used in reports
+     * @param complexity  the theoretical time complexity
+     * @param sorter      sorts its first argument, reporting to the second
+     * @return the engine
+     */
+    static SortAlgorithm engine(String name, String displayName, String complexity,
+                                BiConsumer<int[], OpCounter> sorter) {
+        return new Engine(name, displayName, complexity, sorter);
+    }
+
+    /**
+     * @param name a command-line name
+     * @return whether an engine with that name is registered
+     */
+    public static synchronized boolean contains(String name) {
+        return ENGINES.containsKey(name);
+    }
+
+    /**
+     * Registers an engine that sorts another representation of the values,
+     * for example a {@code long[]}. The conversion from and back to the
+     * {@code int[]} input is neither counted nor timed.
+     *
+     * @param name        the command-line name
+     * @param displayName the name used in reports
+     * @param complexity  the theoretical time complexity
+     * @param convert     builds the representation; must not modify or keep the input
+     * @param sorter      sorts its first argument, reporting to the second
+     * @param writeBack   stores the sorted values back into the input array
+     * @param <A>         the type of the representation
+     * @throws IllegalArgumentException if an engine with the same name exists
+     */
+    public static <A> void register(String name, String displayName, String complexity,
+                                    Function<int[], A> convert, BiConsumer<A, OpCounter> sorter,
+                                    BiConsumer<A, int[]> writeBack) {
+        register(new ConvertingEngine<>(name, displayName, complexity, convert, sorter, writeBack));
+    }
+
+    /**
+     * Looks up an engine by its command-line name.
+     *
+     * @param name the command-line name
+     * @return the registered engine
+     * @throws IllegalArgumentException if no engine has that name
+     */
+    public static synchronized SortAlgorithm get(String name) {
+        SortAlgorithm algorithm = ENGINES.get(name);
+        if (algorithm == null) {
+            throw new IllegalArgumentException(
+                "Unknown sort engine '" + name + "'; available: " + ENGINES.keySet()
+            );
+        }
+        return algorithm;
+    }
+
+    /**
+     * Looks up several engines by name, preserving the given order.
+     *
+     * @param names the command-line names
+     * @return the registered engines
+     * @throws IllegalArgumentException if any name is unknown
+     */
+    public static List<SortAlgorithm> get(Collection<String> names) {
+        List<SortAlgorithm> result = new ArrayList<>();
+        for (String name : names) {
+            result.add(get(name));
+        }
+        return result;
+    }
+
+    /**
+     * @return all registered engines, in registration order
+     */
+    public static synchronized List<SortAlgorithm> all() {
+        return Collections.unmodifiableList(new ArrayList<>(ENGINES.values()));
+    }
+
+    /**
+     * {@link SortAlgorithm} adapter around a sorting function: the counted
+     * path passes a fresh {@link DetailedCounter}, the uncounted path passes
+     * {@link OpCounter#NONE}.
+     */
+    private static final class Engine implements SortAlgorithm {
+        private final String name;
+        private final String displayName;
+        private final String complexity;
+        private final BiConsumer<int[], OpCounter> sorter;
+
+        Engine(String name, String displayName, String complexity, BiConsumer<int[], OpCounter> sorter) {
+            this.name = name;
+            this.displayName = displayName;
+            this.complexity = complexity;
+            this.sorter = sorter;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String displayName() {
+            return displayName;
+        }
+
+        @Override
+        public String complexity() {
+            return complexity;
+        }
+
+        @Override
+        public SortStats sort(int[] arr) {
+            DetailedCounter counter = new DetailedCounter();
+            sorter.accept(arr, counter);
+            return counter.toStats();
+        }
+
+        @Override
+        public void sortUncounted(int[] arr) {
+            sorter.accept(arr, OpCounter.NONE);
+        }
+    }
+
+    /**
+     * {@link SortAlgorithm} adapter around a sorting function for another
+     * representation of the values. Both paths convert the input, sort and
+     * write the result back; only the sort is timed.
+     *
+     * @param <A> the type of the representation
+     */
+    private static final class ConvertingEngine<A> implements SortAlgorithm {
+        private final String name;
+        private final String displayName;
+        private final String complexity;
+        private final Function<int[], A> convert;
+        private final BiConsumer<A, OpCounter> sorter;
+        private final BiConsumer<A, int[]> writeBack;
+
+        ConvertingEngine(String name, String displayName, String complexity, Function<int[], A> convert,
+                         BiConsumer<A, OpCounter> sorter, BiConsumer<A, int[]> writeBack) {
+            this.name = name;
+            this.displayName = displayName;
+            this.complexity = complexity;
+            this.convert = convert;
+            this.sorter = sorter;
+            this.writeBack = writeBack;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String displayName() {
+            return displayName;
+        }
+
+        @Override
+        public String complexity() {
+            return complexity;
+        }
+
+        @Override
+        public SortStats sort(int[] arr) {
+            A values = convert.apply(arr);
+            DetailedCounter counter = new DetailedCounter();
+            sorter.accept(values, counter);
+            writeBack.accept(values, arr);
+            return counter.toStats();
+        }
+
+        @Override
+        public void sortUncounted(int[] arr) {
+            A values = convert.apply(arr);
+            sorter.accept(values, OpCounter.NONE);
+            writeBack.accept(values, arr);
+        }
+
+        @Override
+        public Timing time(int[] input) {
+            A values = convert.apply(input);
+            JvmStats before = JvmStats.snapshot();
+            long start = System.nanoTime();
+            sorter.accept(values, OpCounter.NONE);
+            long end = System.nanoTime();
+            return new Timing(end - start, JvmStats.since(before));
+        }
+    }
+}
@@ -0,0 +1,269 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP service that sorts arrays of {@code int}s, for measuring the
+ * engines under concurrent request load (see {@link SortLoadGenerator}).
+ * <p>
+ * This class:
+ * <ul>
+ *     <li>Serves {@code POST /sort} on the loopback interface with the JDK's
+ *         built-in HTTP server; the request and response bodies are the
+ *         values as 4-byte integers in {@link ExternalMergeSort#BYTE_ORDER}</li>
+ *     <li>Handles every request on its own virtual thread</li>
+ *     <li>Queues small requests (at most {@value #BATCH_LIMIT} values) for
+ *         a pool of batching threads, one per available processor by
+ *         default. Each takes its share of the requests waiting at that
+ *         moment as a batch and sorts them one after another with
+ *         {@link MergeSortAnalyzer#bufferedMergeSort(int[], OpCounter)},
+ *         reusing its own warm scratch buffer, and hands each back as soon
+ *         as it is sorted</li>
+ *     <li>Sorts medium requests on a pool of platform threads, one per
+ *         available processor, so each reuses its thread's warm scratch
+ *         buffer; on the request's own virtual thread the buffer would be
+ *         allocated afresh for every request</li>
+ *     <li>Sends large requests (at least {@value #PARALLEL_THRESHOLD}
+ *         values) to {@link ParallelMergeSort}</li>
+ *     <li>Reports its counters as {@code key=value} lines on
+ *         {@code GET /stats}</li>
+ * </ul>
+ * A batch does no shared work: its requests are sorted separately, exactly
+ * as they would be on their own threads. Batching only bounds how many
+ * small requests are sorted at once, to the number of batching threads,
+ * instead of one per virtual thread, and keeps their scratch buffers warm.
+ * It adds no delay when the service is idle: a lone small request forms a
+ * batch of one. Under load, requests arriving while a batch is being sorted
+ * form the next batch.
+ */
+public final class SortService implements AutoCloseable {
+
+    /** Requests with at most this many values are batched. */
+    public static final int BATCH_LIMIT = 1024;
+
+    /** Requests with at least this many values are sorted in parallel. */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** Most requests sorted in one batch. */
+    private static final int MAX_BATCH = 256;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ExecutorService sorters;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread[] batchers;
+
+    private final AtomicLong batchedRequests = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong directRequests = new AtomicLong();
+    private final AtomicLong parallelRequests = new AtomicLong();
+    private final AtomicLong sortedValues = new AtomicLong();
+
+    /**
+     * Starts the service with one batching thread per available processor.
+     *
+     * @param port the port to listen on; {@code 0} picks a free one
+     * @throws IOException if the port cannot be bound
+     */
+    public SortService(int port) throws IOException {
+        this(port, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts the service.
+     *
+     * @param port     the port to listen on; {@code 0} picks a free one
+     * @param batchers the number of threads sorting small requests; must be
+     *                 at least 1
+     * @throws IllegalArgumentException if {@code batchers < 1}
+     * @throws IOException              if the port cannot be bound
+     */
+    public SortService(int port, int batchers) throws IOException {
+        if (batchers < 1) {
+            throw new IllegalArgumentException("Batchers must be at least 1: " + batchers);
+        }
+        // The server writes headers and body separately; without TCP_NODELAY
+        // each small response waits for the client's delayed ACK (about 40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        handlers = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(handlers);
+        sorters = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                Thread.ofPlatform().name("sort-worker-", 1).daemon().factory());
+        server.createContext("/sort", this::handleSort);
+        server.createContext("/stats", this::handleStats);
+
+        this.batchers = new Thread[batchers];
+        for (int i = 0; i < batchers; i++) {
+            this.batchers[i] = new Thread(this::runBatches, "sort-batcher-" + (i + 1));
+            this.batchers[i].setDaemon(true);
+            this.batchers[i].start();
+        }
+        server.start();
+    }
+
+    /**
+     * Runs the service until the process is stopped.
+     * <p>
+     * Usage: {@code java SortService [--port=P] [--batchers=B]} (default
+     * port 8330, one batching thread per available processor)
+     *
+     * @param args command-line arguments as described above
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8330;
+        int batchers = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--batchers=")) {
+                batchers = Integer.parseInt(arg.substring("--batchers=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        SortService service = new SortService(port, batchers);
+        System.out.println("Sort service listening on http://localhost:" + service.port() + "/sort");
+    }
+
+    /**
+     * @return the port the service listens on
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for running ones and
+     * stops the sorting threads.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        handlers.shutdownNow();
+        sorters.shutdownNow();
+        for (Thread batcher : batchers) {
+            batcher.interrupt();
+        }
+    }
+
+    /**
+     * Sorts one request body, choosing the path by its size.
+     */
+    private void handleSort(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, "Use POST with the values as 4-byte integers\n");
+                return;
+            }
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (body.length % Integer.BYTES != 0) {
+                respond(exchange, 400, "Body length " + body.length + " is not a multiple of 4\n");
+                return;
+            }
+
+            int[] values = new int[body.length / Integer.BYTES];
+            ByteBuffer.wrap(body).order(ExternalMergeSort.BYTE_ORDER).asIntBuffer().get(values);
+            sortedValues.addAndGet(values.length);
+
+            if (values.length <= BATCH_LIMIT) {
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                queue.add(new Pending(values, done));
+                done.join();
+            } else if (values.length < PARALLEL_THRESHOLD) {
+                directRequests.incrementAndGet();
+                CompletableFuture.runAsync(() -> MergeSortAnalyzer.bufferedMergeSort(values, OpCounter.NONE),
+                        sorters).join();
+            } else {
+                parallelRequests.incrementAndGet();
+                ParallelMergeSort.parallelMergeSort(values, OpCounter.NONE);
+            }
+
+            ByteBuffer.wrap(body).order(ExternalMergeSort.BYTE_ORDER).asIntBuffer().put(values);
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Reports the counters, one {@code key=value} per line.
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            respond(exchange, 200, "batchers=" + batchers.length + "\n"
+                    + "batched=" + batchedRequests.get() + "\n"
+                    + "batches=" + batches.get() + "\n"
+                    + "direct=" + directRequests.get() + "\n"
+                    + "parallel=" + parallelRequests.get() + "\n"
+                    + "values=" + sortedValues.get() + "\n");
+        }
+    }
+
+    /**
+     * Body of a batching thread: waits for a small request, takes its share
+     * of the others already queued, sorts them all and completes them.
+     */
+    private void runBatches() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                // Leave the rest to the other batchers rather than sort it all here
+                int share = (queue.size() + batchers.length - 1) / batchers.length;
+                queue.drainTo(batch, Math.min(share, MAX_BATCH - 1));
+                for (Pending pending : batch) {
+                    try {
+                        MergeSortAnalyzer.bufferedMergeSort(pending.values(), OpCounter.NONE);
+                        pending.done().complete(null);
+                    } catch (RuntimeException e) {
+                        pending.done().completeExceptionally(e);
+                    }
+                }
+                batches.incrementAndGet();
+                batchedRequests.addAndGet(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Closed; fail whatever was still waiting
+            for (Pending pending : batch) {
+                pending.done().cancel(false);
+            }
+            for (Pending pending : queue) {
+                pending.done().cancel(false);
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** A small request waiting for the batching thread. */
+    private record Pending(int[] values, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Statistics reported by a single call to {@link SortAlgorithm#sort(int[])},
+ * as recorded by a {@link DetailedCounter}.
+ */
+public final class SortStats {
+
+    /** Statistics of a sort that did no work. */
+    public static final SortStats ZERO = new SortStats(0, 0, 0, 0);
+
+    private final long comparisons;
+    private final long moves;
+    private final long allocations;
+    private final long bytesAllocated;
+
+    /**
+     * Creates a new statistics record.
+     *
+     * @param comparisons    the number of comparisons
+     * @param moves          the number of element assignments
+     * @param allocations    the number of arrays allocated by the engine
+     * @param bytesAllocated the total size of those arrays in bytes
+     */
+    public SortStats(long comparisons, long moves, long allocations, long bytesAllocated) {
+        this.comparisons = comparisons;
+        this.moves = moves;
+        this.allocations = allocations;
+        this.bytesAllocated = bytesAllocated;
+    }
+
+    /**
+     * @return the number of basic operations (comparisons plus moves), the
+     *         figure the analyzers have always reported
+     */
+    public long ops() {
+        return comparisons + moves;
+    }
+
+    /**
+     * @return the number of comparisons
+     */
+    public long comparisons() {
+        return comparisons;
+    }
+
+    /**
+     * @return the number of element assignments
+     */
+    public long moves() {
+        return moves;
+    }
+
+    /**
+     * @return the number of arrays allocated by the engine
+     */
+    public long allocations() {
+        return allocations;
+    }
+
+    /**
+     * @return the total size of the arrays allocated by the engine, in bytes
+     */
+    public long bytesAllocated() {
+        return bytesAllocated;
+    }
+
+    /**
+     * Estimates the memory traffic of the sort, assuming each comparison
+     * reads two {@code int}s and each move reads one and writes one.
+     *
+     * @return the estimated number of bytes read and written
+     */
+    public long bytesTouched() {
+        return 2L * Integer.BYTES * (comparisons + moves);
+    }
+
+    /**
+     * @param other the statistics to add
+     * @return the element-wise sum of this and {@code other}
+     */
+    public SortStats plus(SortStats other) {
+        return new SortStats(comparisons + other.comparisons, moves + other.moves,
+                allocations + other.allocations, bytesAllocated + other.bytesAllocated);
+    }
+
+    /**
+     * @param divisor the number of runs to average over
+     * @return these statistics divided element-wise by {@code divisor}
+     */
+    public SortStats dividedBy(long divisor) {
+        return new SortStats(comparisons / divisor, moves / divisor,
+                allocations / divisor, bytesAllocated / divisor);
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the {@code k} smallest of a stream of {@code int} values in a
+ * bounded binary max-heap.
+ * <p>
+ * The heap root is the largest of the values kept, so a new value only
+ * enters the heap if it is smaller than the root, in which case it replaces
+ * the root and is sifted down. Each value therefore costs one comparison
+ * when it is rejected and O(log k) work when it is kept, for O(n log k)
+ * overall and O(k) memory however long the stream is.
+ * <p>
+ * Operations are counted as one per comparison and one per assignment into
+ * the heap.
+ */
+public final class TopK {
+
+    private final int[] heap;
+    private final OpCounter counter;
+    private int size;
+
+    /**
+     * @param k the number of smallest values to keep; at least 1
+     * @throws IllegalArgumentException if {@code k < 1}
+     */
+    public TopK(int k) {
+        this(k, OpCounter.NONE);
+    }
+
+    /**
+     * @param k       the number of smallest values to keep; at least 1
+     * @param counter receives the operations performed
+     * @throws IllegalArgumentException if {@code k < 1}
+     */
+    public TopK(int k, OpCounter counter) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1: " + k);
+        }
+        this.heap = new int[k];
+        this.counter = counter;
+        counter.allocate(k, Integer.BYTES);
+    }
+
+    /**
+     * Returns the {@code k} smallest values of a stream in ascending order.
+     *
+     * @param values the values to consume
+     * @param k      the number of smallest values wanted; at least 1
+     * @return the smallest values, fewer than {@code k} if the stream is shorter
+     */
+    public static int[] smallest(IntStream values, int k) {
+        TopK top = new TopK(k);
+        top.offerAll(values);
+        return top.toSortedArray();
+    }
+
+    /**
+     * Offers one value.
+     *
+     * @param value the value
+     */
+    public void offer(int value) {
+        if (size < heap.length) {
+            siftUp(size++, value);
+            return;
+        }
+        counter.compare(1);
+        if (value < heap[0]) {
+            siftDown(0, value, size);
+        }
+    }
+
+    /**
+     * Offers every value of {@code values}, in encounter order.
+     *
+     * @param values the values to consume
+     */
+    public void offerAll(IntStream values) {
+        values.sequential().forEach(this::offer);
+    }
+
+    /**
+     * Offers every value of {@code values}.
+     *
+     * @param values the values to offer
+     */
+    public void offerAll(int[] values) {
+        for (int value : values) {
+            offer(value);
+        }
+    }
+
+    /**
+     * @return the number of values currently kept, at most {@code k}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values kept, in ascending order. The heap is not changed.
+     *
+     * @return a new array of {@link #size()} values
+     */
+    public int[] toSortedArray() {
+        int[] result = new int[size];
+        counter.allocate(size, Integer.BYTES);
+        System.arraycopy(heap, 0, result, 0, size);
+        counter.move(size);
+
+        // Heapsort the copy: repeatedly move the maximum behind the heap
+        for (int end = size - 1; end > 0; end--) {
+            int last = result[end];
+            result[end] = result[0];
+            counter.move(1);
+            siftDown(result, 0, 0, last, end, counter);
+        }
+        return result;
+    }
+
+    /**
+     * Moves {@code value} up from the free slot {@code i} to its place.
+     */
+    private void siftUp(int i, int value) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            counter.compare(1);
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            counter.move(1);
+            i = parent;
+        }
+        heap[i] = value;
+        counter.move(1);
+    }
+
+    private void siftDown(int i, int value, int n) {
+        siftDown(heap, 0, i, value, n, counter);
+    }
+
+    /**
+     * Moves {@code value} down from the free slot {@code i} of the max-heap
+     * {@code h[base..base+n)}, with heap indices relative to {@code base},
+     * to its place.
+     *
+     * @param h       the array holding the heap
+     * @param base    the index of the heap root in {@code h}
+     * @param i       the free slot, relative to {@code base}
+     * @param value   the value to place
+     * @param n       the number of heap slots
+     * @param counter receives the operations performed
+     */
+    static void siftDown(int[] h, int base, int i, int value, int n, OpCounter counter) {
+        int half = n >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < n) {
+                counter.compare(1);
+                if (h[base + right] > h[base + child]) {
+                    child = right;
+                }
+            }
+            counter.compare(1);
+            if (value >= h[base + child]) {
+                break;
+            }
+            h[base + i] = h[base + child];
+            counter.move(1);
+            i = child;
+        }
+        h[base + i] = value;
+        counter.move(1);
+    }
+}
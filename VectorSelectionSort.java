@@ -0,0 +1,116 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Selection Sort whose minimum search uses SIMD lanes through the
+ * {@code jdk.incubator.vector} API.
+ * <p>
+ * Each pass is the same as in {@link SelectionSortAnalyzer}, but the scan of
+ * the unsorted suffix is split in two vectorized loops:
+ * <ol>
+ *     <li>A lane-wise minimum over the whole suffix, reduced to a single
+ *         value at the end. There are no data-dependent branches.</li>
+ *     <li>A search for the first lane equal to that minimum, which stops
+ *         as soon as it is found.</li>
+ * </ol>
+ * The elements that do not fill a whole vector are handled by scalar code.
+ * The swap of the minimum into place, and therefore the sorted result, is
+ * exactly the same as in the classic version.
+ * <p>
+ * The incubator module must be added explicitly with
+ * {@code --add-modules jdk.incubator.vector}, both when compiling and when
+ * running. {@link SortRegistry} only registers this engine if the module is
+ * present at run time.
+ */
+public final class VectorSelectionSort {
+
+    private VectorSelectionSort() {
+    }
+
+    /**
+     * @return whether {@code jdk.incubator.vector} is available, so that this
+     *         class can be used
+     */
+    public static boolean isSupported() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * Sorts {@code arr} with Selection Sort using a vectorized minimum scan,
+     * reporting its work to {@code counter}.
+     * <p>
+     * Operations are counted as in
+     * {@link SelectionSortAnalyzer#selectionSort(int[], OpCounter)}: one
+     * comparison per element of the unsorted suffix in each pass (the
+     * logical comparisons of the classic scan, however many lanes perform
+     * them at once), and three moves per swap.
+     *
+     * @param arr     the array to be sorted in-place
+     * @param counter receives the operations performed; {@link OpCounter#NONE}
+     *                for an uninstrumented run
+     */
+    public static void selectionSort(int[] arr, OpCounter counter) {
+        int n = arr.length;
+
+        for (int i = 0; i < n - 1; i++) {
+            int minIndex = Lanes.minIndex(arr, i, n);
+            counter.compare(n - 1 - i);
+
+            if (minIndex != i) {
+                int temp = arr[minIndex];
+                arr[minIndex] = arr[i];
+                arr[i] = temp;
+                counter.move(3);
+            }
+        }
+    }
+
+    /**
+     * The vector code proper. It is kept in its own class so that
+     * {@link VectorSelectionSort} can be loaded, and asked whether it is
+     * supported, without the incubator module.
+     */
+    private static final class Lanes {
+        private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+        /**
+         * Returns the index of the first minimum of {@code arr[from..to)}.
+         *
+         * @param arr  the array to scan
+         * @param from the first index to scan (inclusive)
+         * @param to   the last index to scan (exclusive); greater than {@code from}
+         * @return the smallest index holding the minimum value
+         */
+        static int minIndex(int[] arr, int from, int to) {
+            int bound = from + SPECIES.loopBound(to - from);
+
+            // Lane-wise minimum over the whole vectors, then the scalar tail
+            int min = Integer.MAX_VALUE;
+            if (bound > from) {
+                IntVector lanes = IntVector.fromArray(SPECIES, arr, from);
+                for (int j = from + SPECIES.length(); j < bound; j += SPECIES.length()) {
+                    lanes = lanes.min(IntVector.fromArray(SPECIES, arr, j));
+                }
+                min = lanes.reduceLanes(VectorOperators.MIN);
+            }
+            for (int j = bound; j < to; j++) {
+                min = Math.min(min, arr[j]);
+            }
+
+            // First position holding the minimum
+            for (int j = from; j < bound; j += SPECIES.length()) {
+                VectorMask<Integer> hits = IntVector.fromArray(SPECIES, arr, j).eq(min);
+                if (hits.anyTrue()) {
+                    return j + hits.firstTrue();
+                }
+            }
+            int j = bound;
+            while (arr[j] != min) {
+                j++;
+            }
+            return j;
+        }
+    }
+}
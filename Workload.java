@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Input shapes the engines can be measured on, each generated by
+ * {@link DataGenerator} in O(n) time.
+ * <p>
+ * {@link #RANDOM}, {@link #SORTED} and {@link #REVERSED} are the average,
+ * best and worst cases of the standard experiment. The others model
+ * inputs seen in practice, or known to be hard for some engines, and can
+ * be selected with {@code ExperimentRunner --workloads=...}.
+ */
+public enum Workload {
+
+    /** Unique random values in random order. */
+    RANDOM("random", "unique random values") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.generateUniqueRandomArray(random, n, maxValue);
+        }
+    },
+
+    /** Unique values in ascending order. */
+    SORTED("sorted", "unique values, ascending") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.createBestCase(random, n, maxValue);
+        }
+    },
+
+    /** Unique values in descending order. */
+    REVERSED("reversed", "unique values, descending") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.createWorstCase(random, n, maxValue);
+        }
+    },
+
+    /** Ascending unique values with 1% of positions swapped at random. */
+    NEARLY_SORTED("nearly-sorted", "ascending, n/100 random swaps") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.generateNearlySorted(random, n, maxValue, Math.max(1, n / 100));
+        }
+    },
+
+    /** Only 16 distinct values, in random order. */
+    FEW_UNIQUE("few-unique", "16 distinct values") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.generateFewUnique(random, n, maxValue, 16);
+        }
+    },
+
+    /** Ascending first half, descending second half. */
+    ORGAN_PIPE("organ-pipe", "ascending then descending") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.generateOrganPipe(n, maxValue);
+        }
+    },
+
+    /** Ascending ramps of about sqrt(n) values each. */
+    SAWTOOTH("sawtooth", "ascending ramps of sqrt(n)") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.generateSawtooth(n, maxValue, Math.max(2, (int) Math.sqrt(n)));
+        }
+    },
+
+    /** Zipf-distributed values with exponent 1. */
+    ZIPF("zipf", "Zipf-skewed values, s = 1") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.generateZipf(random, n, maxValue, 1.0);
+        }
+    },
+
+    /** Unique values arranged to maximize Merge Sort comparisons. */
+    MERGE_ADVERSARIAL("merge-adversarial", "worst case for top-down Merge Sort") {
+        @Override
+        int[] generate(SplittableRandom random, int n, int maxValue) {
+            return DataGenerator.generateMergeSortAdversarial(random, n, maxValue);
+        }
+    };
+
+    private final String id;
+    private final String description;
+
+    Workload(String id, String description) {
+        this.id = id;
+        this.description = description;
+    }
+
+    /**
+     * @return the command-line name, for example {@code "nearly-sorted"}
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * @return a short description used in reports
+     */
+    public String description() {
+        return description;
+    }
+
+    /**
+     * Generates one input of this shape.
+     *
+     * @param random   the stream to draw from
+     * @param n        the number of integers to generate
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return the generated array
+     */
+    abstract int[] generate(SplittableRandom random, int n, int maxValue);
+
+    /**
+     * Looks up a workload by its command-line name.
+     *
+     * @param id the command-line name
+     * @return the workload
+     * @throws IllegalArgumentException if no workload has that name
+     */
+    public static Workload of(String id) {
+        for (Workload workload : values()) {
+            if (workload.id.equals(id)) {
+                return workload;
+            }
+        }
+        List<String> ids = new ArrayList<>();
+        for (Workload workload : values()) {
+            ids.add(workload.id);
+        }
+        throw new IllegalArgumentException("Unknown workload '" + id + "'; available: " + ids);
+    }
+
+    /**
+     * Parses a comma-separated list of workload names; {@code "all"} selects
+     * every workload.
+     *
+     * @param ids the comma-separated names
+     * @return the workloads, in the given order
+     * @throws IllegalArgumentException if any name is unknown
+     */
+    public static List<Workload> parse(String ids) {
+        if (ids.equals("all")) {
+            return Arrays.asList(values());
+        }
+        List<Workload> result = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            result.add(of(id.trim()));
+        }
+        return result;
+    }
+}
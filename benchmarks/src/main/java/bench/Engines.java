@@ -0,0 +1,93 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles onto the project's sorting engines and generators.
+ * <p>
+ * The project classes live in the default package, which cannot be imported
+ * from a named package (and JMH refuses to generate code for benchmarks in
+ * the default package). The classes are therefore looked up by name once and
+ * exposed as {@code static final} handles, which the JIT treats as constants
+ * and inlines just like a direct call.
+ * <p>
+ * The sort handles have type {@code (int[])void} and run the engines'
+ * uninstrumented path: the {@code OpCounter} parameter is bound to
+ * {@code OpCounter.NONE}, so no counting is measured.
+ */
+final class Engines {
+
+    static final MethodHandle SELECTION_SORT =
+            uncounted("SelectionSortAnalyzer", "selectionSort");
+
+    static final MethodHandle DOUBLE_ENDED_SELECTION_SORT =
+            uncounted("SelectionSortAnalyzer", "doubleEndedSelectionSort");
+
+    static final MethodHandle VECTOR_SELECTION_SORT =
+            uncounted("VectorSelectionSort", "selectionSort");
+
+    static final MethodHandle MERGE_SORT =
+            uncounted("MergeSortAnalyzer", "mergeSort");
+
+    static final MethodHandle BUFFERED_MERGE_SORT =
+            uncounted("MergeSortAnalyzer", "bufferedMergeSort");
+
+    static final MethodHandle BOTTOM_UP_MERGE_SORT =
+            uncounted("MergeSortAnalyzer", "bottomUpMergeSort");
+
+    static final MethodHandle IN_PLACE_MERGE_SORT =
+            uncounted("InPlaceMergeSortAnalyzer", "inPlaceMergeSort");
+
+    static final MethodHandle NETWORK_MERGE_SORT =
+            uncounted("NetworkMergeSortAnalyzer", "networkMergeSort");
+
+    static final MethodHandle PARALLEL_MERGE_SORT =
+            uncounted("ParallelMergeSort", "parallelMergeSort");
+
+    static final MethodHandle RADIX_SORT =
+            uncounted("RadixSortAnalyzer", "radixSort");
+
+    static final MethodHandle NATURAL_MERGE_SORT =
+            uncounted("NaturalMergeSortAnalyzer", "naturalMergeSort");
+
+    static final MethodHandle GENERATE_UNIQUE =
+            find("DataGenerator", "generateUniqueRandomArray", int[].class, int.class, int.class);
+
+    static final MethodHandle GENERATE_SORTED_UNIQUE =
+            find("DataGenerator", "generateSortedUniqueArray", int[].class, int.class, int.class);
+
+    static final MethodHandle CREATE_BEST_CASE =
+            find("DataGenerator", "createBestCase", int[].class, int.class, int.class);
+
+    static final MethodHandle CREATE_WORST_CASE =
+            find("DataGenerator", "createWorstCase", int[].class, int.class, int.class);
+
+    private Engines() {
+    }
+
+    /**
+     * Looks up {@code owner.name(int[], OpCounter)} and binds the counter to
+     * {@code OpCounter.NONE}.
+     */
+    private static MethodHandle uncounted(String owner, String name) {
+        try {
+            Class<?> counterType = Class.forName("OpCounter");
+            Object none = counterType.getField("NONE").get(null);
+            MethodHandle sort = find(owner, name, void.class, int[].class, counterType);
+            return MethodHandles.insertArguments(sort, 1, none);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle find(String owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            return MethodHandles.publicLookup().findStatic(
+                    Class.forName(owner), name, MethodType.methodType(returnType, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
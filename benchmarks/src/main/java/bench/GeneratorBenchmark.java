@@ -0,0 +1,55 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the {@code DataGenerator} methods.
+ * <p>
+ * The generated arrays are returned so JMH consumes them and the
+ * generation cannot be eliminated as dead code.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int n;
+
+    @Param({"4"})
+    public int rangeMultiplier;
+
+    @Benchmark
+    public int[] generateUniqueRandomArray() throws Throwable {
+        return (int[]) Engines.GENERATE_UNIQUE.invokeExact(n, n * rangeMultiplier);
+    }
+
+    @Benchmark
+    public int[] generateSortedUniqueArray() throws Throwable {
+        return (int[]) Engines.GENERATE_SORTED_UNIQUE.invokeExact(n, n * rangeMultiplier);
+    }
+
+    @Benchmark
+    public int[] createBestCase() throws Throwable {
+        return (int[]) Engines.CREATE_BEST_CASE.invokeExact(n, n * rangeMultiplier);
+    }
+
+    @Benchmark
+    public int[] createWorstCase() throws Throwable {
+        return (int[]) Engines.CREATE_WORST_CASE.invokeExact(n, n * rangeMultiplier);
+    }
+}
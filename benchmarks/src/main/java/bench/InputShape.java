@@ -0,0 +1,36 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Input shapes used by the analyzers: random unique values, ascending
+ * (best case) and descending (worst case).
+ */
+public enum InputShape {
+    RANDOM(Engines.GENERATE_UNIQUE),
+    BEST(Engines.CREATE_BEST_CASE),
+    WORST(Engines.CREATE_WORST_CASE);
+
+    private final MethodHandle generator;
+
+    InputShape(MethodHandle generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Creates an input of this shape.
+     *
+     * @param n        the number of values
+     * @param maxValue the upper bound (exclusive) for generated values
+     * @return a new array of {@code n} unique values
+     */
+    int[] create(int n, int maxValue) {
+        try {
+            return (int[]) generator.invokeExact(n, maxValue);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
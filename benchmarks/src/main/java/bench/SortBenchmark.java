@@ -0,0 +1,134 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the sorting engines, over the same sizes and input
+ * shapes as {@code ExperimentRunner}.
+ * <p>
+ * Each invocation copies the prepared input into a preallocated work array
+ * before sorting it, so every call sorts the same data. The copy is O(n) and
+ * is included in the measured time; it is small next to the sort itself.
+ * The engines run on their uninstrumented path, and the sorted array is
+ * returned to JMH, which prevents the sort from being eliminated as dead code.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class SortBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int n;
+
+    @Param({"RANDOM", "BEST", "WORST"})
+    public InputShape shape;
+
+    @Param({"4"})
+    public int rangeMultiplier;
+
+    private int[] input;
+    private int[] work;
+
+    @Setup
+    public void setUp() {
+        input = shape.create(n, n * rangeMultiplier);
+        work = new int[n];
+    }
+
+    private int[] freshInput() {
+        System.arraycopy(input, 0, work, 0, n);
+        return work;
+    }
+
+    @Benchmark
+    public int[] selectionSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.SELECTION_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] doubleEndedSelectionSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.DOUBLE_ENDED_SELECTION_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] vectorSelectionSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.VECTOR_SELECTION_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] mergeSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.MERGE_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] bufferedMergeSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.BUFFERED_MERGE_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] bottomUpMergeSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.BOTTOM_UP_MERGE_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] inPlaceMergeSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.IN_PLACE_MERGE_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] networkMergeSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.NETWORK_MERGE_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] parallelMergeSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.PARALLEL_MERGE_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] radixSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.RADIX_SORT.invokeExact(arr);
+        return arr;
+    }
+
+    @Benchmark
+    public int[] naturalMergeSort() throws Throwable {
+        int[] arr = freshInput();
+        Engines.NATURAL_MERGE_SORT.invokeExact(arr);
+        return arr;
+    }
+}